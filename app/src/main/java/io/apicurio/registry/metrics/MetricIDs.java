@@ -28,4 +28,10 @@ public interface MetricIDs {
 
     String STORAGE_CONCURRENT_OPERATION_COUNT = "concurrent_operation_count";
     String STORAGE_CONCURRENT_OPERATION_COUNT_DESC = "Number of concurrent storage operations.";
+
+    String STORAGE_CACHE_HIT_COUNT = "storage_cache_hit_count";
+    String STORAGE_CACHE_HIT_COUNT_DESC = "Total number of storage reads served by the cache.";
+
+    String STORAGE_CACHE_MISS_COUNT = "storage_cache_miss_count";
+    String STORAGE_CACHE_MISS_COUNT_DESC = "Total number of storage reads not served by the cache.";
 }
@@ -19,8 +19,12 @@ package io.apicurio.registry.rest;
 import io.apicurio.registry.metrics.ResponseErrorLivenessCheck;
 import io.apicurio.registry.metrics.ResponseTimeoutReadinessCheck;
 import io.apicurio.registry.metrics.RestMetricsApply;
+import io.apicurio.registry.rest.beans.ArtifactContent;
 import io.apicurio.registry.rest.beans.ArtifactMetaData;
+import io.apicurio.registry.storage.ArtifactContentDto;
 import io.apicurio.registry.storage.ArtifactMetaDataDto;
+import io.apicurio.registry.storage.ArtifactNotFoundException;
+import io.apicurio.registry.storage.InvalidArtifactStateException;
 import io.apicurio.registry.storage.RegistryStorage;
 import io.apicurio.registry.storage.StoredArtifact;
 import io.apicurio.registry.types.ArtifactMediaTypes;
@@ -40,10 +44,15 @@ import static io.apicurio.registry.metrics.MetricIDs.REST_REQUEST_RESPONSE_TIME;
 import static io.apicurio.registry.metrics.MetricIDs.REST_REQUEST_RESPONSE_TIME_DESC;
 import static org.eclipse.microprofile.metrics.MetricUnits.MILLISECONDS;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -59,6 +68,8 @@ import javax.ws.rs.core.Response;
 @Timed(name = REST_REQUEST_RESPONSE_TIME, description = REST_REQUEST_RESPONSE_TIME_DESC, tags = {"group=" + REST_GROUP_TAG, "metric=" + REST_REQUEST_RESPONSE_TIME}, unit = MILLISECONDS)
 public class IdsResourceImpl implements IdsResource, Headers {
 
+    static final int MAX_BATCH_SIZE = 1000;
+
     @Inject
     @Current
     RegistryStorage storage;
@@ -94,4 +105,35 @@ public class IdsResourceImpl implements IdsResource, Headers {
         return DtoUtil.dtoToMetaData(dto.getId(), dto.getType(), dto);
     }
 
+    /**
+     * @see io.apicurio.registry.rest.IdsResource#getArtifactsByGlobalIds(java.util.List)
+     */
+    @Override
+    public List<ArtifactContent> getArtifactsByGlobalIds(List<Long> globalIds) {
+        if (globalIds == null || globalIds.isEmpty()) {
+            throw new BadRequestException("Missing global ids");
+        }
+        Set<Long> ids = new LinkedHashSet<>(globalIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Too many global ids, the maximum is " + MAX_BATCH_SIZE);
+        }
+        List<ArtifactContent> result = new ArrayList<>(ids.size());
+        for (Long globalId : ids) {
+            if (globalId == null) {
+                continue;
+            }
+            try {
+                ArtifactContentDto dto = storage.getArtifactContent(globalId);
+                ArtifactContent content = new ArtifactContent();
+                content.setGlobalId(globalId);
+                content.setType(dto.getMetaData().getType());
+                content.setContent(dto.getContent().bytes());
+                result.add(content);
+            } catch (ArtifactNotFoundException | InvalidArtifactStateException e) {
+                // same rules as getArtifactByGlobalId, what it would refuse is simply not returned
+            }
+        }
+        return result;
+    }
+
 }
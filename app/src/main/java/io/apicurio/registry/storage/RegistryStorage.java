@@ -249,6 +249,20 @@ public interface RegistryStorage {
     // TODO Clarify javadoc, each "artifact version" has a global ID.
     public StoredArtifact getArtifactVersion(long id) throws ArtifactNotFoundException, RegistryStorageException;
 
+    /**
+     * Gets the content of the artifact version with the given global ID, together with its meta-data,
+     * with a single lookup where the storage supports it.  The state of the version is not checked.
+     * @param id
+     * @throws ArtifactNotFoundException
+     * @throws RegistryStorageException
+     */
+    default ArtifactContentDto getArtifactContent(long id) throws ArtifactNotFoundException, RegistryStorageException {
+        return ArtifactContentDto.builder()
+                                 .metaData(getArtifactMetaData(id))
+                                 .content(getArtifactVersion(id).getContent())
+                                 .build();
+    }
+
     /**
      * Gets the stored value for a single version of a given artifact.
      * @param artifactId
@@ -16,14 +16,15 @@
 
 package io.apicurio.registry.storage.impl;
 
-import static io.apicurio.registry.storage.MetaDataKeys.VERSION;
 import static io.apicurio.registry.utils.StringUtil.isEmpty;
 
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -31,16 +32,14 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
 import io.apicurio.registry.content.ContentHandle;
-import io.apicurio.registry.content.canon.ContentCanonicalizer;
 import io.apicurio.registry.content.extract.ContentExtractor;
 import io.apicurio.registry.rest.beans.ArtifactSearchResults;
 import io.apicurio.registry.rest.beans.EditableMetaData;
@@ -48,12 +47,13 @@ import io.apicurio.registry.rest.beans.SearchOver;
 import io.apicurio.registry.rest.beans.SearchedArtifact;
 import io.apicurio.registry.rest.beans.SortOrder;
 import io.apicurio.registry.storage.ArtifactAlreadyExistsException;
+import io.apicurio.registry.storage.ArtifactContentDto;
 import io.apicurio.registry.storage.ArtifactMetaDataDto;
 import io.apicurio.registry.storage.ArtifactNotFoundException;
 import io.apicurio.registry.storage.ArtifactStateExt;
 import io.apicurio.registry.storage.ArtifactVersionMetaDataDto;
 import io.apicurio.registry.storage.EditableArtifactMetaDataDto;
-import io.apicurio.registry.storage.MetaDataKeys;
+import io.apicurio.registry.storage.InvalidArtifactStateException;
 import io.apicurio.registry.storage.RegistryStorage;
 import io.apicurio.registry.storage.RegistryStorageException;
 import io.apicurio.registry.storage.RuleAlreadyExistsException;
@@ -66,6 +66,7 @@ import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.types.RuleType;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProvider;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProviderFactory;
+import io.apicurio.registry.util.ContentHashUtil;
 import io.apicurio.registry.util.SearchUtil;
 
 /**
@@ -79,10 +80,11 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     @Inject
     protected ArtifactTypeUtilProviderFactory factory;
     
-    protected Map<String, Map<Long, Map<String, String>>> storage;
-    protected Map<Long, Map<String, String>> global;
+    protected Map<String, ArtifactVersionIndex> storage;
+    protected Map<Long, ArtifactVersionRecord> global;
     protected Map<String, Map<String, String>> artifactRules;
     protected Map<String, String> globalRules;
+    protected ArtifactSearchIndex searchIndex;
 
     @PostConstruct
     public void init() {
@@ -90,6 +92,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
         global = createGlobalMap();
         globalRules = createGlobalRulesMap();
         artifactRules = createArtifactRulesMap();
+        searchIndex = createSearchIndex();
         afterInit();
     }
 
@@ -97,77 +100,118 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     }
 
     protected abstract long nextGlobalId();
-    protected abstract Map<String, Map<Long, Map<String, String>>> createStorageMap();
-    protected abstract Map<Long, Map<String, String>> createGlobalMap();
+    protected abstract Map<String, ArtifactVersionIndex> createStorageMap();
+    protected abstract Map<Long, ArtifactVersionRecord> createGlobalMap();
     protected abstract Map<String, String> createGlobalRulesMap();
     protected abstract Map<String, Map<String, String>> createArtifactRulesMap();
 
-    private Map<Long, Map<String, String>> getVersion2ContentMap(String artifactId) throws ArtifactNotFoundException {
-        Map<Long, Map<String, String>> v2c = storage.get(artifactId);
-        if (v2c == null) {
+    /**
+     * The search index is maintained locally, on every change made through this storage,
+     * so it should only be used when all the changes go through this instance.
+     *
+     * @return search index, or null if searches should scan all the artifacts
+     */
+    protected ArtifactSearchIndex createSearchIndex() {
+        return null;
+    }
+
+    /**
+     * Re-indexes the artifact, after any change that could affect its latest active version.
+     */
+    private void reindex(String artifactId) {
+        if (searchIndex != null) {
+            searchIndex.index(artifactId, () -> {
+                ArtifactVersionIndex v2r = storage.get(artifactId);
+                return v2r != null ? v2r.latestActive() : null;
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the whole search index, e.g. after the maps were loaded directly.
+     */
+    protected void rebuildSearchIndex() {
+        if (searchIndex != null) {
+            searchIndex.clear();
+            storage.keySet().forEach(this::reindex);
+        }
+    }
+
+    private ArtifactVersionIndex getVersionIndex(String artifactId) throws ArtifactNotFoundException {
+        ArtifactVersionIndex v2r = storage.get(artifactId);
+        if (v2r == null) {
             throw new ArtifactNotFoundException(artifactId);
         }
-        return v2c;
+        return v2r;
     }
 
-    private Map<String, String> getContentMap(String artifactId, Long version, EnumSet<ArtifactState> states) throws ArtifactNotFoundException {
-        Map<Long, Map<String, String>> v2c = getVersion2ContentMap(artifactId);
-        Map<String, String> content = v2c.get(version);
-        if (content == null) {
+    private ArtifactVersionRecord getVersionRecord(String artifactId, Long version, EnumSet<ArtifactState> states) throws ArtifactNotFoundException {
+        ArtifactVersionIndex v2r = getVersionIndex(artifactId);
+        ArtifactVersionRecord record = v2r.get(version);
+        if (record == null) {
             throw new VersionNotFoundException(artifactId, version);
         }
 
-        ArtifactState state = ArtifactStateExt.getState(content);
-        ArtifactStateExt.validateState(states, state, artifactId, version);
+        ArtifactStateExt.validateState(states, record.getState(), artifactId, version);
 
-        return content;
+        return record;
     }
 
-    private Map<String, String> getLatestContentMap(String artifactId, EnumSet<ArtifactState> states) throws ArtifactNotFoundException, RegistryStorageException {
-        Map<Long, Map<String, String>> v2c = getVersion2ContentMap(artifactId);
-        Stream<Map.Entry<Long, Map<String, String>>> stream = v2c.entrySet().stream();
-        if (states != null) {
-            stream = stream.filter(e -> states.contains(ArtifactStateExt.getState(e.getValue())));
+    private ArtifactVersionRecord getLatestVersionRecord(String artifactId, EnumSet<ArtifactState> states) throws ArtifactNotFoundException, RegistryStorageException {
+        ArtifactVersionIndex v2r = getVersionIndex(artifactId);
+        ArtifactVersionRecord latest = v2r.latest(states);
+        if (latest == null) {
+            throw new ArtifactNotFoundException(artifactId);
         }
-        Map<String, String> latest = stream.max((e1, e2) -> (int) (e1.getKey() - e2.getKey()))
-                                           .orElseThrow(() -> new ArtifactNotFoundException(artifactId))
-                                           .getValue();
 
-        ArtifactStateExt.logIfDeprecated(artifactId, ArtifactStateExt.getState(latest), latest.get(VERSION));
+        ArtifactStateExt.logIfDeprecated(artifactId, latest.getState(), latest.getVersion());
 
         return latest;
     }
 
+    /**
+     * Atomically replaces a version record with the one produced by the update function,
+     * and puts the changed version index back, so that replicated maps see the change as well.
+     */
+    private ArtifactVersionRecord updateVersionRecord(String artifactId, long version, EnumSet<ArtifactState> states, UnaryOperator<ArtifactVersionRecord> updateFn)
+            throws ArtifactNotFoundException, VersionNotFoundException {
+        ArtifactVersionIndex v2r = getVersionIndex(artifactId);
+        ArtifactVersionRecord updated = v2r.computeIfPresent(version, r -> {
+            ArtifactStateExt.validateState(states, r.getState(), artifactId, version);
+            return updateFn.apply(r);
+        });
+        if (updated == null) {
+            throw new VersionNotFoundException(artifactId, version);
+        }
+        storage.replace(artifactId, v2r);
+        global.replace(updated.getGlobalId(), updated);
+        reindex(artifactId);
+        return updated;
+    }
+
     private boolean filterSearchResult(String search, String artifactId, SearchOver searchOver) {
         if (search == null || search.trim().isEmpty()) {
             return true;
         }
         switch (searchOver) {
-            case name:
-            case description:
-                String value = getLatestContentMap(artifactId, ArtifactStateExt.ACTIVE_STATES).get(searchOver.name());
+            case name: {
+                String value = getLatestVersionRecord(artifactId, ArtifactStateExt.ACTIVE_STATES).getName();
+                return value != null && value.contains(search);
+            }
+            case description: {
+                String value = getLatestVersionRecord(artifactId, ArtifactStateExt.ACTIVE_STATES).getDescription();
                 return value != null && value.contains(search);
+            }
             case labels:
                 //TODO not implemented yet
                 return false;
             default:
-                return getLatestContentMap(artifactId, ArtifactStateExt.ACTIVE_STATES)
-                    .values()
-                    .stream()
-                    .anyMatch(v -> v != null && v.contains(search));
+                return getLatestVersionRecord(artifactId, ArtifactStateExt.ACTIVE_STATES).matches(search);
         }
     }
 
-    public static StoredArtifact toStoredArtifact(Map<String, String> content) {
-        return StoredArtifact.builder()
-                             .content(ContentHandle.create(MetaDataKeys.getContent(content)))
-                             .version(Long.parseLong(content.get(VERSION)))
-                             .id(Long.parseLong(content.get(MetaDataKeys.GLOBAL_ID)))
-                             .build();
-    }
-
-    protected BiFunction<String, Map<Long, Map<String, String>>, Map<Long, Map<String, String>>> lookupFn() {
-        return (id, m) -> (m == null) ? new ConcurrentHashMap<>() : m;
+    protected BiFunction<String, ArtifactVersionIndex, ArtifactVersionIndex> lookupFn() {
+        return (id, m) -> (m == null) ? new ArtifactVersionIndex() : m;
     }
     protected BiFunction<String, Map<String, String>, Map<String, String>> rulesLookupFn() {
         return (id, m) -> (m == null) ? new ConcurrentHashMap<>() : m;
@@ -182,48 +226,41 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
             artifactId = UUID.randomUUID().toString();
         }
 
-        Map<Long, Map<String, String>> v2c = storage.compute(artifactId, lookupFn());
+        ArtifactVersionIndex v2r = storage.compute(artifactId, lookupFn());
 
-        if (create && v2c.size() > 0) {
+        if (create && v2r.size() > 0) {
             throw new ArtifactAlreadyExistsException(artifactId);
         }
         
-        if (!create && v2c.size() == 0) {
+        if (!create && v2r.size() == 0) {
             storage.remove(artifactId); // remove, as we just "computed" empty map
             throw new ArtifactNotFoundException(artifactId);
         }
 
-        long version = v2c.keySet().stream().max(Long::compareTo).orElse(0L) + 1;
+        long version = v2r.nextVersion();
         long prevVersion = version - 1;
 
-        Map<String, String> contents = new ConcurrentHashMap<>();
         // TODO not yet properly handling createdOn vs. modifiedOn for multiple versions
-        MetaDataKeys.putContent(contents, content.bytes());
-        contents.put(VERSION, Long.toString(version));
-        contents.put(MetaDataKeys.GLOBAL_ID, String.valueOf(globalId));
-        contents.put(MetaDataKeys.ARTIFACT_ID, artifactId);
-
-        String currentTimeMillis = String.valueOf(System.currentTimeMillis());
-        contents.put(MetaDataKeys.CREATED_ON, currentTimeMillis);
-        contents.put(MetaDataKeys.MODIFIED_ON, currentTimeMillis);
-
-//        contents.put(MetaDataKeys.NAME, null);
-//        contents.put(MetaDataKeys.DESCRIPTION, null);
-        contents.put(MetaDataKeys.TYPE, artifactType.value());
-        ArtifactStateExt.applyState(contents, ArtifactState.ENABLED);
+        long currentTimeMillis = System.currentTimeMillis();
+        ArtifactVersionRecord.ArtifactVersionRecordBuilder builder = ArtifactVersionRecord.builder()
+            .artifactId(artifactId)
+            .globalId(globalId)
+            .version(version)
+            .type(artifactType)
+            .state(ArtifactState.ENABLED)
+            .createdOn(currentTimeMillis)
+            .modifiedOn(currentTimeMillis)
+            .canonicalHash(ContentHashUtil.storedCanonicalHash(factory, artifactType, content))
+            .content(content.bytes());
         // TODO -- createdBy, modifiedBy
 
         // Carry over some meta-data from the previous version on an update.
         if (!create) {
-            Map<String, String> prevContents = v2c.get(prevVersion);
-            if (prevContents != null) {
-                contents.put(MetaDataKeys.CREATED_ON, prevContents.get(MetaDataKeys.CREATED_ON));
-                if (prevContents.containsKey(MetaDataKeys.NAME)) {
-                    contents.put(MetaDataKeys.NAME, prevContents.get(MetaDataKeys.NAME));
-                }
-                if (prevContents.containsKey(MetaDataKeys.DESCRIPTION)) {
-                    contents.put(MetaDataKeys.DESCRIPTION, prevContents.get(MetaDataKeys.DESCRIPTION));
-                }
+            ArtifactVersionRecord prevRecord = v2r.get(prevVersion);
+            if (prevRecord != null) {
+                builder.createdOn(prevRecord.getCreatedOn())
+                       .name(prevRecord.getName())
+                       .description(prevRecord.getDescription());
             }
         }
 
@@ -232,36 +269,39 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
         EditableMetaData emd = extractor.extract(content);
         if (extractor.isExtracted(emd)) {
             if (!isEmpty(emd.getName())) {
-                contents.put(MetaDataKeys.NAME, emd.getName());
+                builder.name(emd.getName());
             }
             if (!isEmpty(emd.getDescription())) {
-                contents.put(MetaDataKeys.DESCRIPTION, emd.getDescription());
+                builder.description(emd.getDescription());
             }
         }
 
-        // Store in v2c
-        Map<String, String> previous = v2c.putIfAbsent(version, contents);
+        // Store in v2r
+        ArtifactVersionRecord record = builder.build();
+        ArtifactVersionRecord previous = v2r.putIfAbsent(record);
         // loop, due to possible race-condition
         while (previous != null) {
             version++;
-            contents.put(VERSION, Long.toString(version));
-            previous = v2c.putIfAbsent(version, contents);
+            record = record.toBuilder().version(version).build();
+            previous = v2r.putIfAbsent(record);
         }
-        storage.put(artifactId, v2c);
+        storage.put(artifactId, v2r);
 
         // Also store in global
-        global.put(globalId, contents);
-        
-        return MetaDataKeys.toArtifactMetaData(contents);
+        global.put(globalId, record);
+
+        reindex(artifactId);
+
+        return record.toArtifactMetaData();
     }
 
-    protected Map<String, String> getContentMap(long id) {
-        Map<String, String> content = global.get(id);
-        if (content == null) {
+    protected ArtifactVersionRecord getVersionRecord(long id) {
+        ArtifactVersionRecord record = global.get(id);
+        if (record == null) {
             throw new ArtifactNotFoundException(String.valueOf(id));
         }
-        ArtifactStateExt.logIfDeprecated(id, ArtifactStateExt.getState(content), content.get(VERSION));
-        return content;
+        ArtifactStateExt.logIfDeprecated(id, record.getState(), record.getVersion());
+        return record;
     }
 
     @Override
@@ -271,18 +311,18 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
 
     @Override
     public void updateArtifactState(String artifactId, ArtifactState state, Integer version) {
-        Map<String, String> content = null;
         if (version == null) {
-            content = getLatestContentMap(artifactId, null);
-            version = Integer.parseInt(content.get(VERSION));
+            version = (int) getLatestVersionRecord(artifactId, null).getVersion();
         }
         if (state == ArtifactState.DELETED) {
             deleteArtifactVersionInternal(artifactId, version);
         } else {
-            if (content == null) {
-                content = getContentMap(artifactId, version.longValue(), null);
-            }
-            ArtifactStateExt.applyState(content, state);
+            updateVersionRecord(artifactId, version, null, r -> {
+                if (!ArtifactStateExt.canTransition(r.getState(), state)) {
+                    throw new InvalidArtifactStateException(r.getState(), state);
+                }
+                return r.withState(state);
+            });
         }
     }
 
@@ -305,16 +345,13 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public SortedSet<Long> deleteArtifact(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        Map<Long, Map<String, String>> v2c = storage.remove(artifactId);
-        if (v2c == null) {
+        ArtifactVersionIndex v2r = storage.remove(artifactId);
+        if (v2r == null) {
             throw new ArtifactNotFoundException(artifactId);
         }
-        v2c.values().forEach(m -> {
-            m.put(MetaDataKeys.DELETED, Boolean.TRUE.toString());
-            long globalId = Long.parseLong(m.get(MetaDataKeys.GLOBAL_ID));
-            global.remove(globalId);
-        });
-        return new TreeSet<>(v2c.keySet());
+        v2r.values().forEach(r -> global.remove(r.getGlobalId()));
+        reindex(artifactId);
+        return new TreeSet<>(v2r.versions());
     }
 
     /**
@@ -322,7 +359,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public StoredArtifact getArtifact(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        return toStoredArtifact(getLatestContentMap(artifactId, ArtifactStateExt.ACTIVE_STATES));
+        return getLatestVersionRecord(artifactId, ArtifactStateExt.ACTIVE_STATES).toStoredArtifact();
     }
 
     /**
@@ -360,20 +397,42 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
         }
         final SortOrder order = sortOrder == null ? SortOrder.asc : sortOrder;
         final SearchOver over = searchOver == null ? SearchOver.everything : searchOver;
-        final LongAdder itemsCount = new LongAdder();
-        final List<SearchedArtifact> matchedArtifacts = getArtifactIds()
+
+        Collection<String> candidates = null;
+        if (searchIndex != null && search != null && !search.trim().isEmpty()) {
+            candidates = searchIndex.candidates(search);
+        }
+        if (candidates == null) {
+            candidates = getArtifactIds();
+        }
+
+        // keep only the first offset + limit matches, instead of sorting all of them
+        final Comparator<String> comparator = SearchUtil.comparator(order);
+        final int size = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        final PriorityQueue<String> top = new PriorityQueue<>(comparator.reversed());
+        int itemsCount = 0;
+        for (String artifactId : candidates) {
+            if (filterSearchResult(search, artifactId, over)) {
+                itemsCount++;
+                if (top.size() < size) {
+                    top.add(artifactId);
+                } else if (size > 0 && comparator.compare(artifactId, top.peek()) < 0) {
+                    top.poll();
+                    top.add(artifactId);
+                }
+            }
+        }
+
+        final List<SearchedArtifact> matchedArtifacts = top
             .stream()
-            .filter(artifactId -> filterSearchResult(search, artifactId, over))
-            .peek(artifactId -> itemsCount.increment())
-            .sorted(SearchUtil.comparator(order))
+            .sorted(comparator)
             .skip(offset)
-            .limit(limit)
             .map(artifactId -> SearchUtil.buildSearchedArtifact(getArtifactMetaData(artifactId)))
             .collect(Collectors.toList());
 
         final ArtifactSearchResults artifactSearchResults = new ArtifactSearchResults();
         artifactSearchResults.setArtifacts(matchedArtifacts);
-        artifactSearchResults.setCount(itemsCount.intValue());
+        artifactSearchResults.setCount(itemsCount);
 
         return artifactSearchResults;
     }
@@ -383,34 +442,24 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public ArtifactMetaDataDto getArtifactMetaData(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        Map<String, String> content = getLatestContentMap(artifactId, ArtifactStateExt.ACTIVE_STATES);
-        return MetaDataKeys.toArtifactMetaData(content);
+        return getLatestVersionRecord(artifactId, ArtifactStateExt.ACTIVE_STATES).toArtifactMetaData();
     }
 
     @Override
     public ArtifactMetaDataDto getArtifactMetaData(String artifactId, ContentHandle content) throws ArtifactNotFoundException, RegistryStorageException {
         ArtifactMetaDataDto metaData = getArtifactMetaData(artifactId);
-        ArtifactTypeUtilProvider provider = factory.getArtifactTypeProvider(metaData.getType());
-        ContentCanonicalizer canonicalizer = provider.getContentCanonicalizer();
-        ContentHandle canonicalContent = canonicalizer.canonicalize(content);
-        byte[] canonicalBytes = canonicalContent.bytes();
-        Map<Long, Map<String, String>> map = getVersion2ContentMap(artifactId);
-        for (Map<String, String> cMap : map.values()) {
-            ContentHandle candidateContent = ContentHandle.create(MetaDataKeys.getContent(cMap));
-            ContentHandle canonicalCandidateContent = canonicalizer.canonicalize(candidateContent);
-            byte[] candidateBytes = canonicalCandidateContent.bytes();
-            if (Arrays.equals(canonicalBytes, candidateBytes)) {
-                ArtifactStateExt.logIfDeprecated(artifactId, ArtifactStateExt.getState(cMap), cMap.get(VERSION));
-                return MetaDataKeys.toArtifactMetaData(cMap);
-            }
+        String canonicalHash = ContentHashUtil.canonicalHash(factory, metaData.getType(), content);
+        ArtifactVersionRecord candidate = getVersionIndex(artifactId).findByContentHash(canonicalHash);
+        if (candidate == null) {
+            throw new ArtifactNotFoundException(artifactId);
         }
-        throw new ArtifactNotFoundException(artifactId);
+        ArtifactStateExt.logIfDeprecated(artifactId, candidate.getState(), candidate.getVersion());
+        return candidate.toArtifactMetaData();
     }
 
     @Override
     public ArtifactMetaDataDto getArtifactMetaData(long id) throws ArtifactNotFoundException, RegistryStorageException {
-        Map<String, String> content = getContentMap(id);
-        return MetaDataKeys.toArtifactMetaData(content);
+        return getVersionRecord(id).toArtifactMetaData();
     }
 
     /**
@@ -419,13 +468,8 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     @Override
     public void updateArtifactMetaData(String artifactId, EditableArtifactMetaDataDto metaData)
             throws ArtifactNotFoundException, RegistryStorageException {
-        Map<String, String> content = getLatestContentMap(artifactId, ArtifactStateExt.ACTIVE_STATES);
-        if (metaData.getName() != null) {
-            content.put(MetaDataKeys.NAME, metaData.getName());
-        }
-        if (metaData.getDescription() != null) {
-            content.put(MetaDataKeys.DESCRIPTION, metaData.getDescription());
-        }
+        ArtifactVersionRecord latest = getLatestVersionRecord(artifactId, ArtifactStateExt.ACTIVE_STATES);
+        updateVersionRecord(artifactId, latest.getVersion(), ArtifactStateExt.ACTIVE_STATES, r -> updateMetaData(r, metaData));
     }
 
     /**
@@ -434,7 +478,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     @Override
     public List<RuleType> getArtifactRules(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
         // check if the artifact exists
-        getVersion2ContentMap(artifactId);
+        getVersionIndex(artifactId);
         // get the rules
         @SuppressWarnings("unchecked")
         Map<String, String> arules = artifactRules.getOrDefault(artifactId, Collections.EMPTY_MAP);
@@ -448,7 +492,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     public void createArtifactRule(String artifactId, RuleType rule, RuleConfigurationDto config)
             throws ArtifactNotFoundException, RuleAlreadyExistsException, RegistryStorageException {
         // check if artifact exists
-        getVersion2ContentMap(artifactId);
+        getVersionIndex(artifactId);
         // create a rule for the artifact
         String cdata = config.getConfiguration();
         Map<String, String> rules = artifactRules.compute(artifactId, rulesLookupFn());
@@ -464,7 +508,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     @Override
     public void deleteArtifactRules(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
         // check if artifact exists
-        getVersion2ContentMap(artifactId);
+        getVersionIndex(artifactId);
         // delete rules
         artifactRules.remove(artifactId);
     }
@@ -477,7 +521,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     public RuleConfigurationDto getArtifactRule(String artifactId, RuleType rule)
             throws ArtifactNotFoundException, RuleNotFoundException, RegistryStorageException {
         // check if artifact exists
-        getVersion2ContentMap(artifactId);
+        getVersionIndex(artifactId);
         // get artifact rule
         Map<String, String> rules = artifactRules.getOrDefault(artifactId, Collections.EMPTY_MAP);
         String config = rules.get(rule.name());
@@ -494,7 +538,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     public void updateArtifactRule(String artifactId, RuleType rule, RuleConfigurationDto config)
             throws ArtifactNotFoundException, RuleNotFoundException, RegistryStorageException {
         // check if artifact exists
-        getVersion2ContentMap(artifactId);
+        getVersionIndex(artifactId);
         // update a rule for the artifact
         String cdata = config.getConfiguration();
         Map<String, String> rules = artifactRules.get(artifactId);
@@ -515,7 +559,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     public void deleteArtifactRule(String artifactId, RuleType rule)
             throws ArtifactNotFoundException, RuleNotFoundException, RegistryStorageException {
         // check if artifact exists
-        getVersion2ContentMap(artifactId);
+        getVersionIndex(artifactId);
         // delete a rule for the artifact
         Map<String, String> rules = artifactRules.get(artifactId);
         if (rules == null) {
@@ -532,9 +576,9 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public SortedSet<Long> getArtifactVersions(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        Map<Long, Map<String, String>> v2c = getVersion2ContentMap(artifactId);
+        ArtifactVersionIndex v2r = getVersionIndex(artifactId);
         // TODO -- always new TreeSet ... optimization?!
-        return new TreeSet<>(v2c.keySet());
+        return new TreeSet<>(v2r.versions());
     }
 
     /**
@@ -542,8 +586,19 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public StoredArtifact getArtifactVersion(long id) throws ArtifactNotFoundException, RegistryStorageException {
-        Map<String, String> content = getContentMap(id);
-        return toStoredArtifact(content);
+        return getVersionRecord(id).toStoredArtifact();
+    }
+
+    /**
+     * @see io.apicurio.registry.storage.RegistryStorage#getArtifactContent(long)
+     */
+    @Override
+    public ArtifactContentDto getArtifactContent(long id) throws ArtifactNotFoundException, RegistryStorageException {
+        ArtifactVersionRecord record = getVersionRecord(id);
+        return ArtifactContentDto.builder()
+                                 .metaData(record.toArtifactMetaData())
+                                 .content(record.getContentHandle())
+                                 .build();
     }
 
     /**
@@ -551,8 +606,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public StoredArtifact getArtifactVersion(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        Map<String, String> content = getContentMap(artifactId, version, ArtifactStateExt.ACTIVE_STATES);
-        return toStoredArtifact(content);
+        return getVersionRecord(artifactId, version, ArtifactStateExt.ACTIVE_STATES).toStoredArtifact();
     }
 
     /**
@@ -565,18 +619,17 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
 
     // internal - so we don't call sub-classes method
     private void deleteArtifactVersionInternal(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        Map<Long, Map<String, String>> v2c = getVersion2ContentMap(artifactId);
-        Map<String, String> removed = v2c.remove(version);
+        ArtifactVersionIndex v2r = getVersionIndex(artifactId);
+        ArtifactVersionRecord removed = v2r.remove(version);
         if (removed == null) {
             throw new VersionNotFoundException(artifactId, version);
         }
-        if (v2c.isEmpty()) {
+        if (v2r.isEmpty()) {
             storage.remove(artifactId); // remove empty map
         }
-        removed.put(MetaDataKeys.DELETED, Boolean.TRUE.toString());
         // remove from global as well
-        long globalId = Long.parseLong(removed.get(MetaDataKeys.GLOBAL_ID));
-        global.remove(globalId);
+        global.remove(removed.getGlobalId());
+        reindex(artifactId);
     }
 
     /**
@@ -585,8 +638,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     @Override
     public ArtifactVersionMetaDataDto getArtifactVersionMetaData(String artifactId, long version)
             throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        Map<String, String> content = getContentMap(artifactId, version, null);
-        return MetaDataKeys.toArtifactVersionMetaData(content);
+        return getVersionRecord(artifactId, version, null).toArtifactVersionMetaData();
     }
     
     /**
@@ -595,13 +647,7 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
     @Override
     public void updateArtifactVersionMetaData(String artifactId, long version, EditableArtifactMetaDataDto metaData)
             throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        Map<String, String> content = getContentMap(artifactId, version, ArtifactStateExt.ACTIVE_STATES);
-        if (metaData.getName() != null) {
-            content.put(MetaDataKeys.NAME, metaData.getName());
-        }
-        if (metaData.getDescription() != null) {
-            content.put(MetaDataKeys.DESCRIPTION, metaData.getDescription());
-        }
+        updateVersionRecord(artifactId, version, ArtifactStateExt.ACTIVE_STATES, r -> updateMetaData(r, metaData));
     }
 
     /**
@@ -609,9 +655,13 @@ public abstract class AbstractMapRegistryStorage implements RegistryStorage {
      */
     @Override
     public void deleteArtifactVersionMetaData(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        Map<String, String> content = getContentMap(artifactId, version, null);
-        content.remove(MetaDataKeys.NAME);
-        content.remove(MetaDataKeys.DESCRIPTION);
+        updateVersionRecord(artifactId, version, null, r -> r.withMetaData(null, null));
+    }
+
+    private static ArtifactVersionRecord updateMetaData(ArtifactVersionRecord record, EditableArtifactMetaDataDto metaData) {
+        String name = metaData.getName() != null ? metaData.getName() : record.getName();
+        String description = metaData.getDescription() != null ? metaData.getDescription() : record.getDescription();
+        return record.withMetaData(name, description);
     }
 
     /**
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Local (non-replicated) n-gram index over the searchable values of each artifact's latest active version.
+ * <p>
+ * The index only narrows down the candidates, every candidate still has to be matched against
+ * the actual values, as the grams of a search string can come from different values or positions.
+ * Searches shorter than the gram size cannot be answered by the index.
+ */
+public class ArtifactSearchIndex {
+
+    static final int GRAM_SIZE = 3;
+
+    // gram -> artifact ids
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    // artifact id -> currently indexed grams
+    private final Map<String, Set<String>> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * (Re)indexes the artifact, or removes it from the index if the record is null.
+     */
+    public synchronized void index(String artifactId, ArtifactVersionRecord record) {
+        Set<String> grams = record != null ? grams(record) : Collections.emptySet();
+        Set<String> previous = indexed.getOrDefault(artifactId, Collections.emptySet());
+        for (String gram : previous) {
+            if (!grams.contains(gram)) {
+                postings.computeIfPresent(gram, (g, ids) -> {
+                    ids.remove(artifactId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+        for (String gram : grams) {
+            if (!previous.contains(gram)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(artifactId);
+            }
+        }
+        if (grams.isEmpty()) {
+            indexed.remove(artifactId);
+        } else {
+            indexed.put(artifactId, grams);
+        }
+    }
+
+    /**
+     * (Re)indexes the artifact, reading its current record under the index lock,
+     * so that concurrent changes of the same artifact cannot index an older record last.
+     */
+    public synchronized void index(String artifactId, Supplier<ArtifactVersionRecord> record) {
+        index(artifactId, record.get());
+    }
+
+    public void remove(String artifactId) {
+        index(artifactId, (ArtifactVersionRecord) null);
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        indexed.clear();
+    }
+
+    /**
+     * @return ids of the artifacts which might match the search, or null if the index cannot be used for it
+     */
+    public Set<String> candidates(String search) {
+        if (search == null || search.length() < GRAM_SIZE) {
+            return null;
+        }
+        // intersect, starting with the smallest posting
+        Set<String> smallest = null;
+        Set<String> grams = grams(search, new HashSet<>());
+        for (String gram : grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        Set<String> result = new HashSet<>();
+        for (String id : smallest) {
+            if (matchesAll(id, grams)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private boolean matchesAll(String artifactId, Set<String> grams) {
+        Set<String> artifactGrams = indexed.get(artifactId);
+        return artifactGrams != null && artifactGrams.containsAll(grams);
+    }
+
+    private static Set<String> grams(ArtifactVersionRecord record) {
+        Set<String> grams = new HashSet<>();
+        for (String value : record.searchableValues()) {
+            grams(value, grams);
+        }
+        return grams;
+    }
+
+    private static Set<String> grams(String value, Set<String> grams) {
+        if (value != null) {
+            for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+}
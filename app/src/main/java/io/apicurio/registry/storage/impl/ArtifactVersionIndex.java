@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl;
+
+import io.apicurio.registry.storage.ArtifactStateExt;
+import io.apicurio.registry.types.ArtifactState;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * Versions of a single artifact, sorted by version number.
+ * <p>
+ * Besides the sorted versions, it keeps a pointer to the latest active version,
+ * which is updated on every change, so that "latest" lookups don't need to scan all the versions,
+ * and an index of versions by their canonical content hash, for content lookups.
+ * Reads are lock-free, changes are serialized on the index itself.
+ */
+public class ArtifactVersionIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentNavigableMap<Long, ArtifactVersionRecord> versions = new ConcurrentSkipListMap<>();
+
+    private final Map<String, NavigableSet<Long>> contentIndex = new ConcurrentHashMap<>();
+
+    private volatile ArtifactVersionRecord latestActive;
+
+    public ArtifactVersionRecord get(long version) {
+        return versions.get(version);
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    public boolean isEmpty() {
+        return versions.isEmpty();
+    }
+
+    public NavigableSet<Long> versions() {
+        return versions.keySet();
+    }
+
+    public Collection<ArtifactVersionRecord> values() {
+        return versions.values();
+    }
+
+    /**
+     * @return the next free version number
+     */
+    public long nextVersion() {
+        Map.Entry<Long, ArtifactVersionRecord> last = versions.lastEntry();
+        return (last != null ? last.getKey() : 0L) + 1;
+    }
+
+    /**
+     * @return latest version, regardless of its state, or null if there are no versions
+     */
+    public ArtifactVersionRecord latest() {
+        Map.Entry<Long, ArtifactVersionRecord> last = versions.lastEntry();
+        return last != null ? last.getValue() : null;
+    }
+
+    /**
+     * @return latest version in one of the active states, or null if there is no such version
+     */
+    public ArtifactVersionRecord latestActive() {
+        return latestActive;
+    }
+
+    /**
+     * @return latest version in one of the states, or null if there is no such version
+     */
+    public ArtifactVersionRecord latest(EnumSet<ArtifactState> states) {
+        if (states == null) {
+            return latest();
+        }
+        if (ArtifactStateExt.ACTIVE_STATES.equals(states)) {
+            return latestActive();
+        }
+        return findLatest(states);
+    }
+
+    /**
+     * @return first (lowest) version with the canonical content hash, or null if there is no such version
+     */
+    public ArtifactVersionRecord findByContentHash(String canonicalHash) {
+        NavigableSet<Long> matches = contentIndex.get(canonicalHash);
+        if (matches != null) {
+            for (Long version : matches) {
+                ArtifactVersionRecord record = versions.get(version);
+                if (record != null) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    public synchronized ArtifactVersionRecord putIfAbsent(ArtifactVersionRecord record) {
+        ArtifactVersionRecord previous = versions.putIfAbsent(record.getVersion(), record);
+        if (previous == null) {
+            if (record.getCanonicalHash() != null) {
+                contentIndex.computeIfAbsent(record.getCanonicalHash(), h -> new ConcurrentSkipListSet<>()).add(record.getVersion());
+            }
+            versionChanged(record.getVersion());
+        }
+        return previous;
+    }
+
+    /**
+     * Replaces the version with the result of the update function; the function may throw to abort the update.
+     *
+     * @return the updated record, or null if there is no such version
+     */
+    public synchronized ArtifactVersionRecord computeIfPresent(long version, UnaryOperator<ArtifactVersionRecord> updateFn) {
+        ArtifactVersionRecord current = versions.get(version);
+        if (current == null) {
+            return null;
+        }
+        ArtifactVersionRecord updated = updateFn.apply(current);
+        versions.put(version, updated);
+        versionChanged(version);
+        return updated;
+    }
+
+    public synchronized ArtifactVersionRecord remove(long version) {
+        ArtifactVersionRecord removed = versions.remove(version);
+        if (removed != null) {
+            String hash = removed.getCanonicalHash();
+            if (hash != null) {
+                contentIndex.computeIfPresent(hash, (h, vs) -> {
+                    vs.remove(version);
+                    return vs.isEmpty() ? null : vs;
+                });
+            }
+            versionChanged(version);
+        }
+        return removed;
+    }
+
+    private void versionChanged(long version) {
+        ArtifactVersionRecord current = latestActive;
+        // only versions at or above the current pointer can change it
+        if (current == null || version >= current.getVersion()) {
+            latestActive = findLatest(ArtifactStateExt.ACTIVE_STATES);
+        }
+    }
+
+    private ArtifactVersionRecord findLatest(EnumSet<ArtifactState> states) {
+        // typically only the last few versions are checked
+        for (ArtifactVersionRecord record : versions.descendingMap().values()) {
+            if (states.contains(record.getState())) {
+                return record;
+            }
+        }
+        return null;
+    }
+}
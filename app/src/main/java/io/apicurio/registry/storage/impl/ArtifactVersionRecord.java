@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl;
+
+import io.apicurio.registry.content.ContentHandle;
+import io.apicurio.registry.storage.ArtifactMetaDataDto;
+import io.apicurio.registry.storage.ArtifactVersionMetaDataDto;
+import io.apicurio.registry.storage.StoredArtifact;
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, typed representation of a single artifact version, as kept by the map-based storages.
+ * Content is held as raw bytes and numbers as primitives, so reads don't need any decoding.
+ * <p>
+ * Any change (state, meta-data) produces a new record, which the storage then puts back into its maps.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ArtifactVersionRecord implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String artifactId;
+    private long globalId;
+    private long version;
+    private ArtifactType type;
+    private ArtifactState state;
+    private String name;
+    private String description;
+    private long createdOn;
+    private long modifiedOn;
+    // hash of the canonical content, see ContentHashUtil#canonicalHash
+    private String canonicalHash;
+    // not copied on reads, treat as read-only
+    private byte[] content;
+
+    public ArtifactVersionRecord withState(ArtifactState newState) {
+        return toBuilder().state(newState).build();
+    }
+
+    public ArtifactVersionRecord withMetaData(String newName, String newDescription) {
+        return toBuilder().name(newName).description(newDescription).build();
+    }
+
+    public ContentHandle getContentHandle() {
+        return ContentHandle.create(content);
+    }
+
+    public StoredArtifact toStoredArtifact() {
+        return StoredArtifact.builder()
+                             .content(getContentHandle())
+                             .version(version)
+                             .id(globalId)
+                             .build();
+    }
+
+    public ArtifactMetaDataDto toArtifactMetaData() {
+        ArtifactMetaDataDto dto = new ArtifactMetaDataDto();
+        dto.setId(artifactId);
+        dto.setCreatedOn(createdOn);
+        dto.setModifiedOn(modifiedOn);
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setType(type);
+        dto.setVersion((int) version);
+        dto.setGlobalId(globalId);
+        dto.setState(state);
+        return dto;
+    }
+
+    public ArtifactVersionMetaDataDto toArtifactVersionMetaData() {
+        ArtifactVersionMetaDataDto dto = new ArtifactVersionMetaDataDto();
+        dto.setCreatedOn(createdOn);
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setType(type);
+        dto.setVersion((int) version);
+        dto.setGlobalId(globalId);
+        dto.setState(state);
+        return dto;
+    }
+
+    /**
+     * @return the searchable (non-content) values of this version
+     */
+    public List<String> searchableValues() {
+        return Arrays.asList(
+            artifactId,
+            name,
+            description,
+            type != null ? type.value() : null,
+            state != null ? state.name() : null,
+            String.valueOf(version),
+            String.valueOf(globalId)
+        );
+    }
+
+    /**
+     * Simple "contains" match over the searchable values of this version.
+     */
+    public boolean matches(String search) {
+        for (String value : searchableValues()) {
+            if (value != null && value.contains(search)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
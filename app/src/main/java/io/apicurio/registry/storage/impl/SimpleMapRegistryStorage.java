@@ -9,12 +9,12 @@ import java.util.concurrent.ConcurrentHashMap;
 public abstract class SimpleMapRegistryStorage extends AbstractMapRegistryStorage {
 
     @Override
-    protected Map<String, Map<Long, Map<String, String>>> createStorageMap() {
+    protected Map<String, ArtifactVersionIndex> createStorageMap() {
         return new ConcurrentHashMap<>();
     }
 
     @Override
-    protected Map<Long, Map<String, String>> createGlobalMap() {
+    protected Map<Long, ArtifactVersionRecord> createGlobalMap() {
         return new ConcurrentHashMap<>();
     }
 
@@ -27,4 +27,10 @@ public abstract class SimpleMapRegistryStorage extends AbstractMapRegistryStorag
     protected Map<String, Map<String, String>> createArtifactRulesMap() {
         return new ConcurrentHashMap<>();
     }
+
+    @Override
+    protected ArtifactSearchIndex createSearchIndex() {
+        // all changes are applied locally, so we can keep the index up-to-date
+        return new ArtifactSearchIndex();
+    }
 }
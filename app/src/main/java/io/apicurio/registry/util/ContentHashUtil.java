@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.util;
+
+import io.apicurio.registry.content.ContentHandle;
+import io.apicurio.registry.content.canon.ContentCanonicalizer;
+import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.types.provider.ArtifactTypeUtilProviderFactory;
+import io.apicurio.registry.utils.DigestUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content hashing, used by the storages to index artifact versions by their (canonical) content.
+ */
+public final class ContentHashUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentHashUtil.class);
+
+    private ContentHashUtil() {
+    }
+
+    /**
+     * @return hex encoded SHA-256 hash of the content bytes
+     */
+    public static String sha256Hash(byte[] bytes) {
+        return DigestUtil.sha256Hex(bytes);
+    }
+
+    /**
+     * Canonicalizes the content with the artifact type's canonicalizer and hashes the result,
+     * so that semantically equal content (of the same type) produces the same hash.
+     *
+     * @return hex encoded SHA-256 hash of the canonical content
+     */
+    public static String canonicalHash(ArtifactTypeUtilProviderFactory factory, ArtifactType type, ContentHandle content) {
+        ContentCanonicalizer canonicalizer = factory.getArtifactTypeProvider(type).getContentCanonicalizer();
+        return sha256Hash(canonicalizer.canonicalize(content).bytes());
+    }
+
+    /**
+     * The canonical hash to store with a new version. Content that cannot be canonicalized
+     * (e.g. invalid content, stored with no validity rule) is stored without a hash,
+     * like the versions stored before the hash was introduced, see {@link #legacyCanonicalHash}.
+     *
+     * @return hex encoded SHA-256 hash of the canonical content, or null
+     */
+    public static String storedCanonicalHash(ArtifactTypeUtilProviderFactory factory, ArtifactType type, ContentHandle content) {
+        try {
+            return canonicalHash(factory, type, content);
+        } catch (RuntimeException e) {
+            log.warn("Cannot canonicalize the {} content, storing it without a canonical hash: {}", type, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * The canonical hash of a stored version without one, computed when looking the version up by content.
+     * Content that cannot be canonicalized is hashed as is, so it only matches the very same content.
+     *
+     * @return hex encoded SHA-256 hash of the canonical (or the stored) content
+     */
+    public static String legacyCanonicalHash(ArtifactTypeUtilProviderFactory factory, ArtifactType type, ContentHandle content) {
+        try {
+            return canonicalHash(factory, type, content);
+        } catch (RuntimeException e) {
+            log.warn("Cannot canonicalize the stored {} content, comparing it as is: {}", type, e.toString());
+            return sha256Hash(content.bytes());
+        }
+    }
+}
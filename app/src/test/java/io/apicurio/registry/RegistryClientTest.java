@@ -16,8 +16,11 @@
 
 package io.apicurio.registry;
 
+import io.apicurio.registry.client.RegistryCacheStats;
+import io.apicurio.registry.client.RegistryClient;
 import io.apicurio.registry.client.RegistryService;
 import io.apicurio.registry.rest.beans.*;
+import io.apicurio.registry.types.ArtifactState;
 import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.utils.ConcurrentUtil;
 import io.apicurio.registry.utils.tests.RegistryServiceTest;
@@ -26,12 +29,16 @@ import org.junit.jupiter.api.Assertions;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
 
 import static io.apicurio.registry.utils.tests.TestUtils.assertWebError;
 import static io.apicurio.registry.utils.tests.TestUtils.retry;
@@ -153,4 +160,84 @@ public class RegistryClientTest extends AbstractResourceTestBase {
             client.deleteArtifact(artifactId);
         }
     }
-}
\ No newline at end of file
+
+    @RegistryServiceTest
+    void testCacheInvalidation(Supplier<RegistryService> supplier) throws Exception {
+        RegistryService client = RegistryClient.cached(supplier.get(), Collections.singletonMap(RegistryClient.CACHE_MAX_SIZE, "100"));
+
+        String artifactId1 = generateArtifactId();
+        String artifactId2 = generateArtifactId();
+        ByteArrayInputStream stream = new ByteArrayInputStream("{\"name\":\"redhat\"}".getBytes(StandardCharsets.UTF_8));
+        long globalId1 = ConcurrentUtil.result(client.createArtifact(ArtifactType.JSON, artifactId1, stream)).getGlobalId();
+        stream = new ByteArrayInputStream("{\"name\":\"ibm\"}".getBytes(StandardCharsets.UTF_8));
+        long globalId2 = ConcurrentUtil.result(client.createArtifact(ArtifactType.JSON, artifactId2, stream)).getGlobalId();
+        try {
+            client.getArtifactMetaDataByGlobalId(globalId1);
+            client.getArtifactMetaDataByGlobalId(globalId2);
+            RegistryCacheStats stats = RegistryClient.getCacheStats(client).get("globalId");
+            Assertions.assertEquals(2, stats.getHitCount());
+            Assertions.assertEquals(0, stats.getMissCount());
+
+            UpdateState us = new UpdateState();
+            us.setState(ArtifactState.DEPRECATED);
+            client.updateArtifactState(artifactId1, us);
+
+            // only the changed artifact is invalidated
+            client.getArtifactMetaDataByGlobalId(globalId2);
+            client.getArtifactMetaDataByGlobalId(globalId1);
+            stats = RegistryClient.getCacheStats(client).get("globalId");
+            Assertions.assertEquals(1, stats.getMissCount());
+            Assertions.assertEquals(3, stats.getHitCount());
+        } finally {
+            client.deleteArtifact(artifactId1);
+            client.deleteArtifact(artifactId2);
+        }
+    }
+
+    @RegistryServiceTest
+    void testBatchGetByGlobalIds(Supplier<RegistryService> supplier) throws Exception {
+        RegistryService client = supplier.get();
+
+        String artifactId = generateArtifactId();
+        ByteArrayInputStream stream = new ByteArrayInputStream("{\"name\":\"redhat\"}".getBytes(StandardCharsets.UTF_8));
+        long globalId1 = ConcurrentUtil.result(client.createArtifact(ArtifactType.JSON, artifactId, stream)).getGlobalId();
+        stream = new ByteArrayInputStream("{\"name\":\"ibm\"}".getBytes(StandardCharsets.UTF_8));
+        long globalId2 = ConcurrentUtil.result(client.updateArtifact(artifactId, ArtifactType.JSON, stream)).getGlobalId();
+        try {
+            retry(() -> {
+                List<ArtifactContent> contents = client.getArtifactsByGlobalIds(Arrays.asList(globalId2, -1L, globalId1, globalId2));
+                // missing ids are skipped, duplicates are returned once
+                Assertions.assertEquals(2, contents.size());
+                Assertions.assertEquals(globalId2, contents.get(0).getGlobalId());
+                Assertions.assertEquals(ArtifactType.JSON, contents.get(0).getType());
+                Assertions.assertEquals("{\"name\":\"ibm\"}", new String(contents.get(0).getContent(), StandardCharsets.UTF_8));
+                Assertions.assertEquals(globalId1, contents.get(1).getGlobalId());
+                Assertions.assertEquals("{\"name\":\"redhat\"}", new String(contents.get(1).getContent(), StandardCharsets.UTF_8));
+            });
+
+            // the batch serves whatever the single get by global id serves
+            UpdateState us = new UpdateState();
+            us.setState(ArtifactState.DISABLED);
+            client.updateArtifactVersionState(1, artifactId, us);
+            retry(() -> {
+                boolean served;
+                try {
+                    Response response = client.getArtifactByGlobalId(globalId1);
+                    served = response.getStatus() == 200;
+                    response.close();
+                } catch (WebApplicationException e) {
+                    served = false;
+                }
+                List<ArtifactContent> contents = client.getArtifactsByGlobalIds(Arrays.asList(globalId1, globalId2));
+                Assertions.assertEquals(served ? 2 : 1, contents.size());
+                Assertions.assertEquals(globalId2, contents.get(contents.size() - 1).getGlobalId());
+            });
+
+            List<Long> tooMany = LongStream.range(0, 1001).boxed().collect(Collectors.toList());
+            assertWebError(400, () -> client.getArtifactsByGlobalIds(tooMany));
+            assertWebError(400, () -> client.getArtifactsByGlobalIds(Collections.emptyList()));
+        } finally {
+            client.deleteArtifact(artifactId);
+        }
+    }
+}
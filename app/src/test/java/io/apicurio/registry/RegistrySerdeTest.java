@@ -19,6 +19,7 @@ package io.apicurio.registry;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import io.apicurio.registry.client.RegistryService;
+import io.apicurio.registry.common.proto.Serde;
 import io.apicurio.registry.rest.beans.ArtifactMetaData;
 import io.apicurio.registry.support.TestCmmn;
 import io.apicurio.registry.support.Tester;
@@ -30,6 +31,7 @@ import io.apicurio.registry.utils.serde.AvroKafkaDeserializer;
 import io.apicurio.registry.utils.serde.AvroKafkaSerializer;
 import io.apicurio.registry.utils.serde.ProtobufKafkaDeserializer;
 import io.apicurio.registry.utils.serde.ProtobufKafkaSerializer;
+import io.apicurio.registry.utils.serde.SchemaStore;
 import io.apicurio.registry.utils.serde.avro.AvroDatumProvider;
 import io.apicurio.registry.utils.serde.avro.DefaultAvroDatumProvider;
 import io.apicurio.registry.utils.serde.avro.ReflectAvroDatumProvider;
@@ -52,10 +54,14 @@ import static io.apicurio.registry.utils.tests.TestUtils.retry;
 import static io.apicurio.registry.utils.tests.TestUtils.waitForSchema;
 
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -113,6 +119,14 @@ public class RegistrySerdeTest extends AbstractResourceTestBase {
         retry(() -> service.getArtifactMetaDataByGlobalId(id));
 
         Assertions.assertEquals(id, idStrategy.findId(service, artifactId, ArtifactType.AVRO, schema));
+        // an equal schema instance has the same fingerprint
+        Schema copy = new Schema.Parser().parse(schema.toString());
+        Assertions.assertEquals(id, idStrategy.findId(service, artifactId, ArtifactType.AVRO, copy));
+
+        // the same schema under another artifact
+        String otherArtifactId = generateArtifactId();
+        long otherId = idStrategy.findId(service, otherArtifactId, ArtifactType.AVRO, schema);
+        Assertions.assertNotEquals(id, otherId);
     }
 
     @SuppressWarnings("unchecked")
@@ -242,6 +256,139 @@ public class RegistrySerdeTest extends AbstractResourceTestBase {
             Descriptors.FieldDescriptor msb = descriptor.findFieldByName("msb");
             Assertions.assertNotNull(msb);
             Assertions.assertEquals(1L, dm.getField(msb));
+
+            // the descriptor is only built once per schema
+            dm = deserializer.deserialize(subject, bytes);
+            Assertions.assertSame(descriptor, dm.getDescriptorForType());
+            Assertions.assertEquals(2L, dm.getField(lsb));
+        }
+    }
+
+    @RegistryServiceTest
+    public void testCachedIds(Supplier<RegistryService> supplier) throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        GlobalIdStrategy<Schema> idStrategy = new CachedSchemaIdStrategy<Schema>() {
+            @Override
+            public long findId(RegistryService service, String artifactId, ArtifactType artifactType, Schema schema) {
+                lookups.incrementAndGet();
+                return super.findId(service, artifactId, artifactType, schema);
+            }
+        };
+        Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"myrecord6\",\"fields\":[{\"name\":\"bar\",\"type\":\"string\"}]}");
+        try (AvroKafkaSerializer<GenericData.Record> serializer = new AvroKafkaSerializer<GenericData.Record>(supplier.get()).setGlobalIdStrategy(idStrategy)) {
+            String subject = generateArtifactId();
+            byte[] first = null;
+            for (int i = 0; i < 3; i++) {
+                GenericData.Record record = new GenericData.Record(schema);
+                record.put("bar", "somebar");
+                byte[] bytes = serializer.serialize(subject, record);
+                if (first == null) {
+                    first = bytes;
+                } else {
+                    Assertions.assertArrayEquals(first, bytes);
+                }
+            }
+            Assertions.assertEquals(1, lookups.get());
+
+            // another topic resolves its own artifact
+            GenericData.Record record = new GenericData.Record(schema);
+            record.put("bar", "somebar");
+            serializer.serialize(generateArtifactId(), record);
+            serializer.serialize(subject, record);
+            Assertions.assertEquals(2, lookups.get());
+
+            serializer.reset();
+            serializer.serialize(subject, record);
+            Assertions.assertEquals(3, lookups.get());
+        }
+    }
+
+    @RegistryServiceTest
+    public void testSchemaStoreIds(Supplier<RegistryService> supplier) throws Exception {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(SchemaStore.REGISTRY_SCHEMA_STORE_DIR_CONFIG_PARAM, Files.createTempDirectory("schema-store").toString());
+        configs.put(AbstractKafkaSerDe.REGISTRY_URL_CONFIG_PARAM, "http://" + UUID.randomUUID());
+        Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"myrecord9\",\"fields\":[{\"name\":\"bar\",\"type\":\"string\"}]}");
+        GenericData.Record record = new GenericData.Record(schema);
+        record.put("bar", "somebar");
+        String subject = generateArtifactId();
+
+        RegistryService client = supplier.get();
+        // not closed, it would close the shared client
+        AvroKafkaSerializer<GenericData.Record> serializer = new AvroKafkaSerializer<GenericData.Record>(client).setGlobalIdStrategy(new CachedSchemaIdStrategy<>());
+        serializer.configure(configs, false);
+        long id = ByteBuffer.wrap(serializer.serialize(subject, record), 1, 8).getLong();
+
+        // the persisted id is trusted, e.g. by a restarted serializer, even if it no longer exists
+        client.deleteArtifact(subject + "-value");
+        AvroKafkaSerializer<GenericData.Record> restarted = new AvroKafkaSerializer<GenericData.Record>(client).setGlobalIdStrategy(new CachedSchemaIdStrategy<>());
+        restarted.configure(configs, false);
+        byte[] bytes = restarted.serialize(subject, record);
+        Assertions.assertEquals(id, ByteBuffer.wrap(bytes, 1, 8).getLong());
+
+        // until fetching it fails, then it's looked up again
+        AvroKafkaDeserializer<GenericData.Record> deserializer = new AvroKafkaDeserializer<>(client);
+        deserializer.configure(configs, false);
+        retry(() -> Assertions.assertThrows(IllegalStateException.class, () -> deserializer.deserialize(subject, bytes)));
+        restarted = new AvroKafkaSerializer<GenericData.Record>(client).setGlobalIdStrategy(new CachedSchemaIdStrategy<>());
+        restarted.configure(configs, false);
+        long recreated = ByteBuffer.wrap(restarted.serialize(subject, record), 1, 8).getLong();
+        Assertions.assertNotEquals(id, recreated);
+        Assertions.assertEquals(subject + "-value", client.getArtifactMetaDataByGlobalId(recreated).getId());
+    }
+
+    @RegistryServiceTest
+    public void testReuseBuffers(Supplier<RegistryService> supplier) throws Exception {
+        Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"myrecord7\",\"fields\":[{\"name\":\"bar\",\"type\":\"string\"}]}");
+        GenericData.Record record = new GenericData.Record(schema);
+        record.put("bar", "somebar");
+        try (AvroKafkaSerializer<GenericData.Record> serializer = new AvroKafkaSerializer<GenericData.Record>(supplier.get()).setGlobalIdStrategy((s, a, t, sc) -> 42L);
+             AvroKafkaSerializer<GenericData.Record> reusing = new AvroKafkaSerializer<GenericData.Record>(supplier.get()).setGlobalIdStrategy((s, a, t, sc) -> 42L).setReuseBuffers(true)) {
+            byte[] expected = serializer.serialize("topic", record);
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertArrayEquals(expected, reusing.serialize("topic", record));
+            }
+            reusing.asConfluent();
+            serializer.asConfluent();
+            Assertions.assertArrayEquals(serializer.serialize("topic", record), reusing.serialize("topic", record));
+        }
+
+        TestCmmn.UUID uuid = TestCmmn.UUID.newBuilder().setLsb(2).setMsb(1).build();
+        try (ProtobufKafkaSerializer<TestCmmn.UUID> serializer = new ProtobufKafkaSerializer<TestCmmn.UUID>(supplier.get()).setGlobalIdStrategy((s, a, t, sc) -> 42L);
+             ProtobufKafkaSerializer<TestCmmn.UUID> reusing = new ProtobufKafkaSerializer<TestCmmn.UUID>(supplier.get()).setGlobalIdStrategy((s, a, t, sc) -> 42L).setReuseBuffers(true)) {
+            byte[] bytes = reusing.serialize("topic", uuid);
+            Assertions.assertArrayEquals(serializer.serialize("topic", uuid), bytes);
+
+            // magic byte + id, then the delimited ref and the message
+            ByteArrayInputStream in = new ByteArrayInputStream(bytes, 9, bytes.length - 9);
+            Assertions.assertEquals("UUID", Serde.Ref.parseDelimitedFrom(in).getName());
+            Assertions.assertEquals(uuid, TestCmmn.UUID.parseFrom(in));
+        }
+    }
+
+    @RegistryServiceTest
+    public void testAvroReuseRecords(Supplier<RegistryService> supplier) throws Exception {
+        Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"myrecord8\",\"fields\":[{\"name\":\"bar\",\"type\":\"string\"}]}");
+        try (Serializer<GenericData.Record> serializer = new AvroKafkaSerializer<GenericData.Record>(supplier.get()).setGlobalIdStrategy(new CachedSchemaIdStrategy<>());
+             AvroKafkaDeserializer<GenericData.Record> deserializer = new AvroKafkaDeserializer<GenericData.Record>(supplier.get()).setReuseRecords(true)) {
+
+            String subject = generateArtifactId();
+
+            GenericData.Record record = new GenericData.Record(schema);
+            record.put("bar", "somebar");
+            byte[] bytes = serializer.serialize(subject, record);
+            waitForSchema(supplier.get(), bytes);
+
+            GenericData.Record first = deserializer.deserialize(subject, bytes);
+            Assertions.assertEquals("somebar", first.get("bar").toString());
+
+            record.put("bar", "otherbar");
+            bytes = serializer.serialize(subject, record);
+            waitForSchema(supplier.get(), bytes);
+
+            GenericData.Record second = deserializer.deserialize(subject, bytes);
+            Assertions.assertSame(first, second);
+            Assertions.assertEquals("otherbar", second.get("bar").toString());
         }
     }
-}
\ No newline at end of file
+}
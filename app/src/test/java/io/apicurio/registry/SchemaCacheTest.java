@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry;
+
+import io.apicurio.registry.client.RegistryService;
+import io.apicurio.registry.rest.beans.ArtifactContent;
+import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.utils.serde.AbstractKafkaSerDe;
+import io.apicurio.registry.utils.serde.SchemaCache;
+import io.apicurio.registry.utils.serde.SchemaStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.Response;
+
+class SchemaCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private static RegistryService service(Map<Long, AtomicInteger> fetches, CountDownLatch blockFirst) {
+        return (RegistryService) Proxy.newProxyInstance(
+            SchemaCacheTest.class.getClassLoader(),
+            new Class[]{RegistryService.class},
+            (proxy, method, args) -> {
+                if ("getArtifactsByGlobalIds".equals(method.getName())) {
+                    return batch(fetches, (List<Long>) args[0]);
+                }
+                if (!"getArtifactByGlobalId".equals(method.getName())) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                long id = (Long) args[0];
+                fetches.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+                if (id == 1) {
+                    blockFirst.await();
+                }
+                if (id < 0) {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+                if (id >= 100) {
+                    return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+                }
+                return Response.ok(new ByteArrayInputStream(("schema-" + id).getBytes(StandardCharsets.UTF_8))).build();
+            }
+        );
+    }
+
+    private static List<ArtifactContent> batch(Map<Long, AtomicInteger> fetches, List<Long> ids) {
+        // batches are counted under id 0
+        fetches.computeIfAbsent(0L, k -> new AtomicInteger()).incrementAndGet();
+        List<ArtifactContent> contents = new ArrayList<>();
+        for (Long id : ids) {
+            if (id >= 100) {
+                throw new ServiceUnavailableException();
+            }
+            // ids from 50 are left out of batches, but served one by one
+            if (id > 0 && id < 50) {
+                ArtifactContent content = new ArtifactContent();
+                content.setGlobalId(id);
+                content.setType(ArtifactType.JSON);
+                content.setContent(("schema-" + id).getBytes(StandardCharsets.UTF_8));
+                contents.add(content);
+            }
+        }
+        return contents;
+    }
+
+    private static SchemaCache<String> cache(RegistryService service) {
+        return new SchemaCache<String>(service) {
+            @Override
+            protected String toSchema(Response response) {
+                return response.readEntity(String.class);
+            }
+        };
+    }
+
+    @Test
+    void testConcurrentMisses() throws Exception {
+        Map<Long, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        CountDownLatch blockFirst = new CountDownLatch(1);
+        SchemaCache<String> cache = cache(service(fetches, blockFirst));
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.getSchema(1));
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> {
+            // make sure the first fetch is in-flight
+            while (!fetches.containsKey(1L)) {
+                Thread.yield();
+            }
+            return cache.getSchema(1);
+        });
+
+        // a miss for another id is not blocked by the in-flight fetch
+        Assertions.assertEquals("schema-2", CompletableFuture.supplyAsync(() -> cache.getSchema(2)).get(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(first.isDone());
+
+        blockFirst.countDown();
+        Assertions.assertEquals("schema-1", first.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals("schema-1", waiting.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals("schema-1", cache.getSchema(1));
+        Assertions.assertEquals(1, fetches.get(1L).get());
+    }
+
+    @Test
+    void testNegativeCaching() {
+        Map<Long, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        SchemaCache<String> cache = cache(service(fetches, new CountDownLatch(0)));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(-1));
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(-1));
+        Assertions.assertEquals(1, fetches.get(-1L).get());
+
+        cache.configure(Collections.singletonMap(SchemaCache.REGISTRY_SCHEMA_CACHE_NEGATIVE_TTL_MS_CONFIG_PARAM, 0));
+        cache.clear();
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(-1));
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(-1));
+        Assertions.assertEquals(3, fetches.get(-1L).get());
+    }
+
+    @Test
+    void testRetriesAndCircuitBreaker() {
+        Map<Long, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        SchemaCache<String> cache = cache(service(fetches, new CountDownLatch(0)));
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(SchemaCache.REGISTRY_SCHEMA_CACHE_RETRIES_CONFIG_PARAM, 2);
+        configs.put(SchemaCache.REGISTRY_SCHEMA_CACHE_BACKOFF_MS_CONFIG_PARAM, "1");
+        configs.put(SchemaCache.REGISTRY_SCHEMA_CACHE_FAILURE_THRESHOLD_CONFIG_PARAM, 3);
+        configs.put(SchemaCache.REGISTRY_SCHEMA_CACHE_OPEN_MS_CONFIG_PARAM, 60_000);
+        cache.configure(configs);
+
+        Assertions.assertEquals("schema-2", cache.getSchema(2));
+
+        // transient failures are retried, until the circuit opens
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(100));
+        Assertions.assertEquals(3, fetches.get(100L).get());
+
+        // open circuit: misses fail fast, cached schemas are still served
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(3));
+        Assertions.assertNull(fetches.get(3L));
+        Assertions.assertEquals("schema-2", cache.getSchema(2));
+        Assertions.assertEquals(1, fetches.get(2L).get());
+    }
+
+    @Test
+    void testPrefetch() {
+        Map<Long, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        SchemaCache<String> cache = cache(service(fetches, new CountDownLatch(0)));
+
+        Assertions.assertEquals("schema-2", cache.getSchema(2));
+        Assertions.assertEquals(2, cache.prefetch(Arrays.asList(2L, 3L, 4L, 3L, -1L, 50L)));
+        Assertions.assertEquals(1, fetches.get(0L).get());
+
+        // served from the cache
+        Assertions.assertEquals("schema-3", cache.getSchema(3));
+        Assertions.assertEquals("schema-4", cache.getSchema(4));
+        Assertions.assertNull(fetches.get(3L));
+        Assertions.assertNull(fetches.get(4L));
+
+        // ids left out of the batch are not taken as missing, but fetched on demand
+        Assertions.assertEquals("schema-50", cache.getSchema(50));
+        Assertions.assertEquals(1, fetches.get(50L).get());
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(-1));
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.getSchema(-1));
+        Assertions.assertEquals(1, fetches.get(-1L).get());
+
+        // nothing left to fetch, the missing id is negatively cached
+        Assertions.assertEquals(0, cache.prefetch(Arrays.asList(2L, 3L, -1L)));
+        Assertions.assertEquals(1, fetches.get(0L).get());
+
+        // failures are not propagated, the schemas are fetched on demand
+        Assertions.assertEquals(0, cache.prefetch(Arrays.asList(5L, 100L)));
+        Assertions.assertEquals(2, fetches.get(0L).get());
+        Assertions.assertEquals("schema-5", cache.getSchema(5));
+        Assertions.assertEquals(1, fetches.get(5L).get());
+    }
+
+    @Test
+    void testSchemaStore() throws Exception {
+        Path dir = Files.createTempDirectory("schema-store");
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(SchemaStore.REGISTRY_SCHEMA_STORE_DIR_CONFIG_PARAM, dir.toString());
+        configs.put(AbstractKafkaSerDe.REGISTRY_URL_CONFIG_PARAM, "http://" + UUID.randomUUID());
+
+        Map<Long, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        SchemaCache<String> cache = cache(service(fetches, new CountDownLatch(0)));
+        cache.configure(configs);
+        Assertions.assertEquals("schema-2", cache.getSchema(2));
+        Assertions.assertEquals(1, cache.prefetch(Arrays.asList(2L, 3L)));
+
+        // e.g. a restarted ser/de, the store is shared
+        SchemaCache<String> other = cache(service(fetches, new CountDownLatch(0)));
+        other.configure(configs);
+        Assertions.assertEquals("schema-2", other.getSchema(2));
+        Assertions.assertEquals(1, other.prefetch(Arrays.asList(2L, 3L)));
+        Assertions.assertEquals("schema-3", other.getSchema(3));
+        Assertions.assertEquals(1, fetches.get(2L).get());
+        Assertions.assertEquals(1, fetches.get(0L).get());
+
+        SchemaStore store = SchemaStore.get(configs);
+        store.putId("AVRO/artifact/fingerprint", 42);
+        store.putId("AVRO/artifact/removed", 43);
+        store.removeId("AVRO/artifact/removed", 43);
+
+        // reload from disk, a torn entry at the end is dropped
+        Path copy = dir.resolve("copy.dat");
+        Files.copy(store.getFile(), copy);
+        long size = Files.size(copy);
+        Files.write(copy, new byte[]{1, 0, 0, 0, 100, 0, 0}, StandardOpenOption.APPEND);
+        SchemaStore reloaded = SchemaStore.open(copy);
+        Assertions.assertEquals(size, Files.size(copy));
+        Assertions.assertEquals("schema-2", new String(reloaded.getContent(2), StandardCharsets.UTF_8));
+        Assertions.assertEquals("schema-3", new String(reloaded.getContent(3), StandardCharsets.UTF_8));
+        Assertions.assertNull(reloaded.getContent(4));
+        Assertions.assertEquals(42L, reloaded.getId("AVRO/artifact/fingerprint"));
+        Assertions.assertNull(reloaded.getId("AVRO/artifact/removed"));
+    }
+}
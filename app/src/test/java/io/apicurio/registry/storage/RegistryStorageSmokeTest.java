@@ -23,6 +23,7 @@ import io.apicurio.registry.types.Current;
 import io.apicurio.registry.types.RuleType;
 import io.apicurio.registry.utils.ConcurrentUtil;
 import io.quarkus.test.junit.QuarkusTest;
+import org.apache.avro.SchemaParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -31,6 +32,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -188,4 +190,16 @@ public class RegistryStorageSmokeTest extends AbstractResourceTestBase {
 
         getStorage().deleteArtifact(ARTIFACT_ID_3);
     }
+
+    @Test
+    public void testInvalidContent() throws Exception {
+        // no validity rule, so the invalid content is stored
+        ContentHandle content = ContentHandle.create("not an avro schema");
+        ConcurrentUtil.result(getStorage().createArtifact(ARTIFACT_ID_1, ArtifactType.AVRO, content));
+
+        // looking it up reports why the content cannot be canonicalized
+        retry(() -> assertThrows(SchemaParseException.class, () -> getStorage().getArtifactMetaData(ARTIFACT_ID_1, content)));
+
+        getStorage().deleteArtifact(ARTIFACT_ID_1);
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl;
+
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+class ArtifactSearchIndexTest {
+
+    private static ArtifactVersionRecord record(String artifactId, String name, String description) {
+        return ArtifactVersionRecord.builder()
+                                    .artifactId(artifactId)
+                                    .globalId(1)
+                                    .version(1)
+                                    .type(ArtifactType.AVRO)
+                                    .state(ArtifactState.ENABLED)
+                                    .name(name)
+                                    .description(description)
+                                    .content(new byte[0])
+                                    .build();
+    }
+
+    @Test
+    void testCandidates() {
+        ArtifactSearchIndex index = new ArtifactSearchIndex();
+        index.index("a1", record("a1", "Customer", "The customer record"));
+        index.index("a2", record("a2", "Order", "An order of a customer"));
+        index.index("a3", record("a3", "Invoice", null));
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("a1", "a2")), index.candidates("customer"));
+        Assertions.assertEquals(Collections.singleton("a1"), index.candidates("Custom"));
+        Assertions.assertEquals(Collections.singleton("a3"), index.candidates("voic"));
+        Assertions.assertTrue(index.candidates("xyz").isEmpty());
+        // too short for the index
+        Assertions.assertNull(index.candidates("a"));
+
+        // re-indexing drops the old values
+        index.index("a1", record("a1", "Client", null));
+        Assertions.assertEquals(Collections.singleton("a2"), index.candidates("customer"));
+        Assertions.assertEquals(Collections.singleton("a1"), index.candidates("Client"));
+
+        index.remove("a2");
+        Assertions.assertTrue(index.candidates("customer").isEmpty());
+        index.clear();
+        Assertions.assertTrue(index.candidates("Client").isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl;
+
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+class ArtifactVersionIndexTest {
+
+    private static ArtifactVersionRecord record(long version) {
+        return record(version, null);
+    }
+
+    private static ArtifactVersionRecord record(long version, String canonicalHash) {
+        return ArtifactVersionRecord.builder()
+                                    .artifactId("foo")
+                                    .globalId(100 + version)
+                                    .version(version)
+                                    .type(ArtifactType.JSON)
+                                    .state(ArtifactState.ENABLED)
+                                    .canonicalHash(canonicalHash)
+                                    .content(new byte[0])
+                                    .build();
+    }
+
+    @Test
+    void testLatestActive() {
+        ArtifactVersionIndex index = new ArtifactVersionIndex();
+        Assertions.assertEquals(1, index.nextVersion());
+        Assertions.assertNull(index.latestActive());
+
+        for (long v = 1; v <= 3; v++) {
+            Assertions.assertNull(index.putIfAbsent(record(index.nextVersion())));
+        }
+        Assertions.assertEquals(4, index.nextVersion());
+        Assertions.assertEquals(3, index.latestActive().getVersion());
+        Assertions.assertNotNull(index.putIfAbsent(record(3)));
+
+        // disabling the latest moves the pointer down
+        index.computeIfPresent(3, r -> r.withState(ArtifactState.DISABLED));
+        Assertions.assertEquals(2, index.latestActive().getVersion());
+        Assertions.assertEquals(3, index.latest().getVersion());
+        Assertions.assertEquals(3, index.latest(EnumSet.of(ArtifactState.DISABLED)).getVersion());
+
+        // older versions don't affect the pointer, unless it's removed
+        index.computeIfPresent(1, r -> r.withState(ArtifactState.DEPRECATED));
+        Assertions.assertEquals(2, index.latestActive().getVersion());
+        index.remove(2);
+        Assertions.assertEquals(1, index.latestActive().getVersion());
+
+        // re-enabling moves it back up
+        index.computeIfPresent(3, r -> r.withState(ArtifactState.ENABLED));
+        Assertions.assertEquals(3, index.latestActive().getVersion());
+
+        index.remove(3);
+        index.remove(1);
+        Assertions.assertTrue(index.isEmpty());
+        Assertions.assertNull(index.latestActive());
+        Assertions.assertNull(index.computeIfPresent(1, r -> r));
+    }
+
+    @Test
+    void testContentHash() {
+        ArtifactVersionIndex index = new ArtifactVersionIndex();
+        index.putIfAbsent(record(1, "a"));
+        index.putIfAbsent(record(2, "b"));
+        index.putIfAbsent(record(3, "a"));
+
+        Assertions.assertEquals(1, index.findByContentHash("a").getVersion());
+        Assertions.assertEquals(2, index.findByContentHash("b").getVersion());
+        Assertions.assertNull(index.findByContentHash("c"));
+
+        // state changes keep the version indexed
+        index.computeIfPresent(2, r -> r.withState(ArtifactState.DISABLED));
+        Assertions.assertEquals(ArtifactState.DISABLED, index.findByContentHash("b").getState());
+
+        index.remove(1);
+        Assertions.assertEquals(3, index.findByContentHash("a").getVersion());
+        index.remove(3);
+        Assertions.assertNull(index.findByContentHash("a"));
+    }
+}
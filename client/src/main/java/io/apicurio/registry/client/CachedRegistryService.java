@@ -16,21 +16,33 @@
 
 package io.apicurio.registry.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.apicurio.registry.rest.beans.*;
 import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.types.RuleType;
+import io.apicurio.registry.utils.DigestUtil;
 import io.apicurio.registry.utils.IoUtil;
 
 import javax.enterprise.inject.Vetoed;
 import javax.ws.rs.Path;
 import javax.ws.rs.core.Response;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Caches the (immutable) artifact metadata lookups.
+ * <p>
+ * The caches are bounded, with optional expiry. Content lookups are keyed by the content's fingerprint.
+ * Changes made through this service only invalidate the entries of the changed artifact.
+ *
  * @author Ales Justin
  */
 @Vetoed // not a bean
@@ -39,17 +51,50 @@ class CachedRegistryService implements RegistryService {
 
     private final RegistryService delegate;
 
-    private final Map<String, Map<String, ArtifactMetaData>> cmds = new ConcurrentHashMap<>();
-    private final Map<String, Map<Integer, VersionMetaData>> vmds = new ConcurrentHashMap<>();
-    private final Map<Long, ArtifactMetaData> globalAMD = new ConcurrentHashMap<>();
+    private final Cache<ContentKey, ArtifactMetaData> cmds;
+    private final Cache<VersionKey, VersionMetaData> vmds;
+    private final Cache<Long, ArtifactMetaData> globalAMD;
 
     public CachedRegistryService() {
         // hack + client side only
         delegate = null;
+        cmds = null;
+        vmds = null;
+        globalAMD = null;
     }
 
     public CachedRegistryService(RegistryService delegate) {
+        this(delegate, Collections.emptyMap());
+    }
+
+    public CachedRegistryService(RegistryService delegate, Map<String, ?> configs) {
         this.delegate = delegate;
+
+        long maxSize = getLong(configs, RegistryClient.CACHE_MAX_SIZE, RegistryClient.DEFAULT_CACHE_MAX_SIZE);
+        long expireAfterWrite = getLong(configs, RegistryClient.CACHE_EXPIRE_AFTER_WRITE_MS, 0);
+
+        this.cmds = builder(expireAfterWrite).maximumSize(maxSize).build();
+        this.vmds = builder(expireAfterWrite).maximumSize(maxSize).build();
+        this.globalAMD = builder(expireAfterWrite).maximumSize(maxSize).build();
+    }
+
+    private static Caffeine<Object, Object> builder(long expireAfterWrite) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (expireAfterWrite > 0) {
+            builder.expireAfterWrite(Duration.ofMillis(expireAfterWrite));
+        }
+        return builder;
+    }
+
+    private static long getLong(Map<String, ?> configs, String key, long defaultValue) {
+        Object value = configs.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong(value.toString());
     }
 
     private RegistryService getDelegate() {
@@ -59,13 +104,36 @@ class CachedRegistryService implements RegistryService {
         return delegate;
     }
 
+    /**
+     * @return statistics of the content, version and global id caches
+     */
+    Map<String, RegistryCacheStats> getCacheStats() {
+        Map<String, RegistryCacheStats> stats = new HashMap<>();
+        stats.put("content", toStats(cmds));
+        stats.put("version", toStats(vmds));
+        stats.put("globalId", toStats(globalAMD));
+        return stats;
+    }
+
+    private static RegistryCacheStats toStats(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new RegistryCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
     // Cached
 
     @Override
     public void reset() {
-        cmds.clear();
-        vmds.clear();
-        globalAMD.clear();
+        cmds.invalidateAll();
+        vmds.invalidateAll();
+        globalAMD.invalidateAll();
+    }
+
+    @Override
+    public void reset(String artifactId) {
+        cmds.asMap().keySet().removeIf(key -> key.artifactId.equals(artifactId));
+        vmds.asMap().keySet().removeIf(key -> key.artifactId.equals(artifactId));
+        globalAMD.asMap().values().removeIf(amd -> artifactId.equals(amd.getId()));
     }
 
     @Override
@@ -80,9 +148,8 @@ class CachedRegistryService implements RegistryService {
      */
     @Override
     public ArtifactMetaData getArtifactMetaDataByContent(String artifactId, InputStream data) {
-        String content = IoUtil.toString(data);
-        Map<String, ArtifactMetaData> map = cmds.computeIfAbsent(artifactId, id -> new ConcurrentHashMap<>());
-        return map.computeIfAbsent(content, c -> {
+        byte[] content = IoUtil.toBytes(data);
+        return cmds.get(new ContentKey(artifactId, DigestUtil.sha256Hex(content)), key -> {
             InputStream copy = IoUtil.toStream(content);
             ArtifactMetaData amd = getDelegate().getArtifactMetaDataByContent(artifactId, copy);
             globalAMD.put(amd.getGlobalId(), amd);
@@ -95,13 +162,12 @@ class CachedRegistryService implements RegistryService {
      */
     @Override
     public ArtifactMetaData getArtifactMetaDataByGlobalId(long globalId) {
-        return globalAMD.computeIfAbsent(globalId, getDelegate()::getArtifactMetaDataByGlobalId);
+        return globalAMD.get(globalId, getDelegate()::getArtifactMetaDataByGlobalId);
     }
 
     @Override
     public VersionMetaData getArtifactVersionMetaData(Integer version, String artifactId) {
-        Map<Integer, VersionMetaData> map = vmds.computeIfAbsent(artifactId, id -> new ConcurrentHashMap<>());
-        return map.computeIfAbsent(version, v -> getDelegate().getArtifactVersionMetaData(version, artifactId));
+        return vmds.get(new VersionKey(artifactId, version), key -> getDelegate().getArtifactVersionMetaData(version, artifactId));
     }
 
     @Override
@@ -131,8 +197,7 @@ class CachedRegistryService implements RegistryService {
     public CompletionStage<VersionMetaData> createArtifactVersion(String artifactId, ArtifactType xRegistryArtifactType, InputStream data) {
         CompletionStage<VersionMetaData> cs = getDelegate().createArtifactVersion(artifactId, xRegistryArtifactType, data);
         return cs.thenApply(vmd -> {
-            Map<Integer, VersionMetaData> map = vmds.computeIfAbsent(artifactId, id -> new ConcurrentHashMap<>());
-            map.put(vmd.getVersion(), vmd);
+            vmds.put(new VersionKey(artifactId, vmd.getVersion()), vmd);
             return vmd;
         });
     }
@@ -159,6 +224,14 @@ class CachedRegistryService implements RegistryService {
         return getDelegate().getArtifactByGlobalId(globalId);
     }
 
+    /**
+     * @see io.apicurio.registry.rest.IdsResource#getArtifactsByGlobalIds(java.util.List)
+     */
+    @Override
+    public List<ArtifactContent> getArtifactsByGlobalIds(List<Long> globalIds) {
+        return getDelegate().getArtifactsByGlobalIds(globalIds);
+    }
+
     @Override
     public void testUpdateArtifact(String artifactId, ArtifactType xRegistryArtifactType, InputStream content) {
         // no sense in caching this
@@ -175,7 +248,7 @@ class CachedRegistryService implements RegistryService {
     @Override
     public void updateArtifactState(String artifactId, UpdateState data) {
         getDelegate().updateArtifactState(artifactId, data);
-        reset();
+        reset(artifactId);
     }
 
     /**
@@ -184,37 +257,37 @@ class CachedRegistryService implements RegistryService {
     @Override
     public void updateArtifactVersionState(Integer version, String artifactId, UpdateState data) {
         getDelegate().updateArtifactVersionState(version, artifactId, data);
-        reset();
+        reset(artifactId);
     }
 
     @Override
     public void deleteArtifact(String artifactId) {
         getDelegate().deleteArtifact(artifactId);
-        reset();
+        reset(artifactId);
     }
 
     @Override
     public void updateArtifactMetaData(String artifactId, EditableMetaData data) {
         getDelegate().updateArtifactMetaData(artifactId, data);
-        reset();
+        reset(artifactId);
     }
 
     @Override
     public void deleteArtifactVersion(Integer version, String artifactId) {
         getDelegate().deleteArtifactVersion(version, artifactId);
-        reset();
+        reset(artifactId);
     }
 
     @Override
     public void deleteArtifactVersionMetaData(Integer version, String artifactId) {
         getDelegate().deleteArtifactVersionMetaData(version, artifactId);
-        reset();
+        reset(artifactId);
     }
 
     @Override
     public void updateArtifactVersionMetaData(Integer version, String artifactId, EditableMetaData data) {
         getDelegate().updateArtifactVersionMetaData(version, artifactId, data);
-        reset();
+        reset(artifactId);
     }
 
     // -- RULES
@@ -295,4 +368,50 @@ class CachedRegistryService implements RegistryService {
     public VersionSearchResults searchVersions(String artifactId, Integer offset, Integer limit) {
         return getDelegate().searchVersions(artifactId, offset, limit);
     }
+
+    private static final class ContentKey {
+        private final String artifactId;
+        private final String fingerprint;
+
+        ContentKey(String artifactId, String fingerprint) {
+            this.artifactId = artifactId;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ContentKey that = (ContentKey) o;
+            return artifactId.equals(that.artifactId) && fingerprint.equals(that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(artifactId, fingerprint);
+        }
+    }
+
+    private static final class VersionKey {
+        private final String artifactId;
+        private final Integer version;
+
+        VersionKey(String artifactId, Integer version) {
+            this.artifactId = artifactId;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            VersionKey that = (VersionKey) o;
+            return artifactId.equals(that.artifactId) && Objects.equals(version, that.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(artifactId, version);
+        }
+    }
 }
@@ -22,6 +22,8 @@ import io.apicurio.registry.rest.beans.VersionMetaData;
 import io.apicurio.registry.types.ArtifactState;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 import javax.ws.rs.core.Response;
@@ -32,6 +34,13 @@ import javax.ws.rs.core.Response;
 public class RegistryClient {
     private static final Logger log = Logger.getLogger(RegistryClient.class.getName());
 
+    // cached client configuration
+
+    public static final String CACHE_MAX_SIZE = "apicurio.registry.cache.max-size";
+    public static final String CACHE_EXPIRE_AFTER_WRITE_MS = "apicurio.registry.cache.expire-after-write-ms";
+
+    public static final long DEFAULT_CACHE_MAX_SIZE = 10_000;
+
     private RegistryClient() {
     }
 
@@ -50,8 +59,27 @@ public class RegistryClient {
         return new CachedRegistryService(delegate);
     }
 
+    public static RegistryService cached(String baseUrl, Map<String, ?> configs) {
+        return cached(create(baseUrl), configs);
+    }
+
+    public static RegistryService cached(RegistryService delegate, Map<String, ?> configs) {
+        return new CachedRegistryService(delegate, configs);
+    }
+
+    /**
+     * @return cache statistics (by cache name) of a cached service, or an empty map for a non-cached one
+     */
+    public static Map<String, RegistryCacheStats> getCacheStats(RegistryService service) {
+        if (service instanceof CachedRegistryService) {
+            return ((CachedRegistryService) service).getCacheStats();
+        }
+        return Collections.emptyMap();
+    }
+
     private static Object handleReset(Method method, Object[] args) {
-        if ("reset".equals(method.getName()) && (args == null || args.length == 0)) {
+        // nothing to reset, incl. reset(artifactId)
+        if ("reset".equals(method.getName())) {
             return null;
         }
         return Void.class;
@@ -26,4 +26,9 @@ import io.apicurio.registry.rest.SearchResource;
  */
 public interface RegistryService extends ArtifactsResource, IdsResource, RulesResource, SearchResource, AutoCloseable {
     void reset();
+
+    /**
+     * Clears any cached data of the artifact.
+     */
+    void reset(String artifactId);
 }
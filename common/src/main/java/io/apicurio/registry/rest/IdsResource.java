@@ -1,7 +1,11 @@
 package io.apicurio.registry.rest;
 
+import io.apicurio.registry.rest.beans.ArtifactContent;
 import io.apicurio.registry.rest.beans.ArtifactMetaData;
+import java.util.List;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -42,4 +46,22 @@ public interface IdsResource {
   @GET
   @Produces("application/json")
   ArtifactMetaData getArtifactMetaDataByGlobalId(@PathParam("globalId") long globalId);
+
+  /**
+   * Gets the content for multiple artifact versions in the registry at once, using
+   * their globally unique identifiers.  Only the versions which exist are returned,
+   * so the result may contain fewer items than requested.  The content is returned
+   * base64 encoded.
+   *
+   * This operation may fail for one of the following reasons:
+   *
+   * * Too many identifiers were requested at once (HTTP error `400`)
+   * * A server error occurred (HTTP error `500`)
+   *
+   */
+  @Path("/batch")
+  @POST
+  @Produces("application/json")
+  @Consumes("application/json")
+  List<ArtifactContent> getArtifactsByGlobalIds(List<Long> data);
 }
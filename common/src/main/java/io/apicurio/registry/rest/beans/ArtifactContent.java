@@ -0,0 +1,108 @@
+
+package io.apicurio.registry.rest.beans;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.apicurio.registry.types.ArtifactType;
+
+
+/**
+ * The content of a single artifact version, as returned when getting multiple artifact versions at once.
+ * 
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({
+    "globalId",
+    "type",
+    "content"
+})
+public class ArtifactContent {
+
+    /**
+     * 
+     * (Required)
+     * 
+     */
+    @JsonProperty("globalId")
+    @JsonPropertyDescription("")
+    private Long globalId;
+    /**
+     * 
+     * (Required)
+     * 
+     */
+    @JsonProperty("type")
+    @JsonPropertyDescription("")
+    private ArtifactType type;
+    /**
+     * The (base64 encoded) content of the artifact version.
+     * (Required)
+     * 
+     */
+    @JsonProperty("content")
+    @JsonPropertyDescription("The (base64 encoded) content of the artifact version.")
+    private byte[] content;
+
+    /**
+     * 
+     * (Required)
+     * 
+     */
+    @JsonProperty("globalId")
+    public Long getGlobalId() {
+        return globalId;
+    }
+
+    /**
+     * 
+     * (Required)
+     * 
+     */
+    @JsonProperty("globalId")
+    public void setGlobalId(Long globalId) {
+        this.globalId = globalId;
+    }
+
+    /**
+     * 
+     * (Required)
+     * 
+     */
+    @JsonProperty("type")
+    public ArtifactType getType() {
+        return type;
+    }
+
+    /**
+     * 
+     * (Required)
+     * 
+     */
+    @JsonProperty("type")
+    public void setType(ArtifactType type) {
+        this.type = type;
+    }
+
+    /**
+     * The (base64 encoded) content of the artifact version.
+     * (Required)
+     * 
+     */
+    @JsonProperty("content")
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * The (base64 encoded) content of the artifact version.
+     * (Required)
+     * 
+     */
+    @JsonProperty("content")
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+}
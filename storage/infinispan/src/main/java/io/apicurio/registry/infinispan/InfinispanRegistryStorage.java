@@ -19,6 +19,8 @@ package io.apicurio.registry.infinispan;
 import io.apicurio.registry.metrics.PersistenceExceptionLivenessApply;
 import io.apicurio.registry.metrics.PersistenceTimeoutReadinessApply;
 import io.apicurio.registry.storage.impl.AbstractMapRegistryStorage;
+import io.apicurio.registry.storage.impl.ArtifactVersionIndex;
+import io.apicurio.registry.storage.impl.ArtifactVersionRecord;
 import org.eclipse.microprofile.metrics.annotation.ConcurrentGauge;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Timed;
@@ -85,7 +87,7 @@ public class InfinispanRegistryStorage extends AbstractMapRegistryStorage {
     }
 
     @Override
-    protected Map<String, Map<Long, Map<String, String>>> createStorageMap() {
+    protected Map<String, ArtifactVersionIndex> createStorageMap() {
         manager.defineConfiguration(
             STORAGE_CACHE,
             new ConfigurationBuilder()
@@ -97,7 +99,7 @@ public class InfinispanRegistryStorage extends AbstractMapRegistryStorage {
     }
 
     @Override
-    protected Map<Long, Map<String, String>> createGlobalMap() {
+    protected Map<Long, ArtifactVersionRecord> createGlobalMap() {
         manager.defineConfiguration(
             GLOBAL_CACHE,
             new ConfigurationBuilder()
@@ -140,9 +142,9 @@ public class InfinispanRegistryStorage extends AbstractMapRegistryStorage {
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Override // make it serializable
-    protected BiFunction<String, Map<Long, Map<String, String>>, Map<Long, Map<String, String>>> lookupFn() {
+    protected BiFunction<String, ArtifactVersionIndex, ArtifactVersionIndex> lookupFn() {
         //noinspection unchecked
-        return (SerializableBiFunction) ((id, m) -> (m == null) ? new ConcurrentHashMap<>() : m);
+        return (SerializableBiFunction) ((id, m) -> (m == null) ? new ArtifactVersionIndex() : m);
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
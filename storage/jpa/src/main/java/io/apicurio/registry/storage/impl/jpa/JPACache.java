@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.apicurio.registry.storage.impl.jpa.entity.Artifact;
+import io.apicurio.registry.storage.impl.jpa.entity.Content;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.transaction.Transactional;
+
+import static io.apicurio.registry.metrics.MetricIDs.STORAGE_CACHE_HIT_COUNT;
+import static io.apicurio.registry.metrics.MetricIDs.STORAGE_CACHE_HIT_COUNT_DESC;
+import static io.apicurio.registry.metrics.MetricIDs.STORAGE_CACHE_MISS_COUNT;
+import static io.apicurio.registry.metrics.MetricIDs.STORAGE_CACHE_MISS_COUNT_DESC;
+import static io.apicurio.registry.metrics.MetricIDs.STORAGE_GROUP_TAG;
+import static org.eclipse.microprofile.metrics.MetricRegistry.Type.APPLICATION;
+import static org.eclipse.microprofile.metrics.MetricType.COUNTER;
+
+/**
+ * Opt-in (second-level) cache of the immutable entities, {@link Artifact} and {@link Content}.
+ * <p>
+ * Cached entries are never updated, only evicted when the entities are deleted
+ * (bulk deletes evict the entity's cache region). The cache is local to each node,
+ * so a deleted version may still be served by the other nodes, until its entry expires
+ * (see the {@code quarkus.hibernate-orm.cache} configuration).
+ */
+@ApplicationScoped
+public class JPACache {
+
+    private static final String RETRIEVE_MODE = "javax.persistence.cache.retrieveMode";
+    private static final String STORE_MODE = "javax.persistence.cache.storeMode";
+
+    @ConfigProperty(name = "registry.jpa.cache.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    JPAReplica replica;
+
+    @Inject
+    @RegistryType(type = APPLICATION)
+    MetricRegistry metricRegistry;
+
+    private final Map<Class<?>, Counter> hits = new HashMap<>();
+    private final Map<Class<?>, Counter> misses = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (Class<?> entityClass : new Class<?>[]{Artifact.class, Content.class}) {
+            hits.put(entityClass, counter(STORAGE_CACHE_HIT_COUNT, STORAGE_CACHE_HIT_COUNT_DESC, entityClass));
+            misses.put(entityClass, counter(STORAGE_CACHE_MISS_COUNT, STORAGE_CACHE_MISS_COUNT_DESC, entityClass));
+        }
+    }
+
+    private Counter counter(String name, String description, Class<?> entityClass) {
+        Metadata metadata = Metadata.builder()
+                                    .withName(name)
+                                    .withDescription(description)
+                                    .withType(COUNTER)
+                                    .build();
+        Tag[] tags = {new Tag("group", STORAGE_GROUP_TAG), new Tag("metric", name), new Tag("entity", entityClass.getSimpleName())};
+        return metricRegistry.counter(metadata, tags);
+    }
+
+    /**
+     * Find the immutable entity, served by the cache if enabled.
+     */
+    public <T> T find(Class<T> entityClass, Object id) {
+        EntityManager em = replica.entityManager(entityManager);
+        if (!enabled) {
+            bypass(em);
+            return em.find(entityClass, id);
+        }
+        if (em.getEntityManagerFactory().getCache().contains(entityClass, id)) {
+            hits.get(entityClass).inc();
+        } else {
+            misses.get(entityClass).inc();
+        }
+        return em.find(entityClass, id);
+    }
+
+    /**
+     * Persist the immutable entity, cached on commit if enabled.
+     */
+    public void persist(Object entity) {
+        if (!enabled) {
+            bypass(entityManager);
+        }
+        entityManager.persist(entity);
+    }
+
+    /**
+     * Persist the immutable entity in its own transaction, unless the same entity (id) already exists,
+     * e.g. concurrently persisted by another transaction.
+     *
+     * @return false if the entity already exists
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public boolean persistIfAbsent(Object entity) {
+        try {
+            persist(entity);
+            entityManager.flush();
+            return true;
+        } catch (PersistenceException e) {
+            // the transaction is marked for rollback
+            if (isConstraintViolation(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    static boolean isConstraintViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // neither read nor populate the cache, for the rest of the current persistence context
+    private static void bypass(EntityManager em) {
+        em.setProperty(RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+        em.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+    }
+}
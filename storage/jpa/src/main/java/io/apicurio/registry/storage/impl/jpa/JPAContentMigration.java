@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.apicurio.registry.storage.impl.jpa.entity.Artifact;
+import io.apicurio.registry.storage.impl.jpa.entity.Content;
+
+import java.util.List;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+/**
+ * Moves the content of the versions stored before the {@link Content} table was introduced
+ * into that table, de-duplicating it on the way.
+ */
+@ApplicationScoped
+public class JPAContentMigration {
+
+    // each row carries its content
+    private static final int BATCH_SIZE = 50;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    JPAContentStore contentStore;
+
+    /**
+     * Migrate the content of the next batch of versions, each batch in its own transaction.
+     *
+     * @return the number of migrated versions, 0 once there is nothing left to migrate
+     */
+    @Transactional
+    public int migrate() {
+        List<Object[]> versions = entityManager.createQuery(
+            "SELECT a.globalId, a.legacyContent FROM Artifact a " +
+            "WHERE a.contentHash IS NULL", Object[].class)
+                                               .setMaxResults(BATCH_SIZE)
+                                               .getResultList();
+
+        for (Object[] row : versions) {
+            Long globalId = (Long) row[0];
+            byte[] content = (byte[]) row[1];
+
+            String contentHash = contentStore.store(content);
+
+            entityManager.createQuery(
+                "UPDATE Artifact a " +
+                "SET a.contentHash = :content_hash, a.legacyContent = :no_content " +
+                "WHERE a.globalId = :global_id")
+                         .setParameter("content_hash", contentHash)
+                         .setParameter("no_content", Artifact.NO_CONTENT)
+                         .setParameter("global_id", globalId)
+                         .executeUpdate();
+        }
+        return versions.size();
+    }
+
+    /**
+     * @return the number of versions left to migrate
+     */
+    @Transactional
+    public long remaining() {
+        return entityManager.createQuery(
+            "SELECT count(a) FROM Artifact a " +
+            "WHERE a.contentHash IS NULL", Long.class)
+                            .getSingleResult();
+    }
+}
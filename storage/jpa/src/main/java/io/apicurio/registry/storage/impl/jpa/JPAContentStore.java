@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.apicurio.registry.storage.RegistryStorageException;
+import io.apicurio.registry.storage.impl.jpa.entity.Content;
+import io.apicurio.registry.util.ContentHashUtil;
+
+import java.util.Collection;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+/**
+ * Stores and removes the shared {@link Content} rows, within the caller's transaction.
+ * <p>
+ * The same content may be stored (or removed) concurrently, by this or other nodes, so:
+ * <ul>
+ *     <li>a missing row is inserted in its own transaction, tolerating a concurrent insert,</li>
+ *     <li>the stored row is then locked (shared) until the caller's transaction ends,
+ *     so it can't be removed before the caller's version referencing it is committed,</li>
+ *     <li>rows are only removed while locked (exclusive), once no version references them.</li>
+ * </ul>
+ * An inserted row whose caller's transaction then fails stays unreferenced,
+ * until the same content is stored again.
+ */
+@ApplicationScoped
+public class JPAContentStore {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    JPACache cache;
+
+    /**
+     * Stores the content, unless the same content is already stored.
+     *
+     * @return the content hash to reference the content by
+     */
+    public String store(byte[] content) {
+        String contentHash = ContentHashUtil.sha256Hash(content);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            // index-only lookup, the content itself is not loaded
+            boolean stored = !entityManager.createQuery(
+                "SELECT c.contentHash FROM Content c " +
+                "WHERE c.contentHash = :content_hash", String.class)
+                                           .setParameter("content_hash", contentHash)
+                                           .setLockMode(LockModeType.PESSIMISTIC_READ)
+                                           .getResultList()
+                                           .isEmpty();
+            if (stored) {
+                return contentHash;
+            }
+            // inserted (or concurrently removed) in the meantime -> lock it on the next attempt
+            cache.persistIfAbsent(Content.builder()
+                                         .contentHash(contentHash)
+                                         .content(content)
+                                         .build());
+        }
+        throw new RegistryStorageException("Cannot store content: " + contentHash);
+    }
+
+    /**
+     * Removes the content no version references anymore.
+     * The bulk delete also evicts the cached content.
+     */
+    public void deleteUnreferenced(Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return;
+        }
+        // waits for the transactions storing (referencing) the same content
+        entityManager.createQuery(
+            "SELECT c.contentHash FROM Content c " +
+            "WHERE c.contentHash IN :content_hashes", String.class)
+                     .setParameter("content_hashes", contentHashes)
+                     .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                     .getResultList();
+        entityManager.createQuery(
+            "DELETE FROM Content c " +
+            "WHERE c.contentHash IN :content_hashes " +
+            "AND NOT EXISTS (SELECT a.globalId FROM Artifact a WHERE a.contentHash = c.contentHash)")
+                     .setParameter("content_hashes", contentHashes)
+                     .executeUpdate();
+    }
+}
@@ -19,18 +19,33 @@ package io.apicurio.registry.storage.impl.jpa;
 import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.LockAcquisitionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PessimisticLockException;
 import java.util.Optional;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 
 @ApplicationScoped
 public class JPADatabaseManager {
 
     private static Logger log = LoggerFactory.getLogger(JPADatabaseManager.class);
 
+    // failed batches in a row, without any rows migrated (by any node) in between
+    private static final int MAX_BATCH_FAILURES = 3;
+
+    @Inject
+    JPAMetaDataMigration migration;
+
+    @Inject
+    JPAContentMigration contentMigration;
+
     @ConfigProperty(name = "quarkus.datasource.url")
     Optional<String> dsUrl;
 
@@ -53,6 +68,67 @@ public class JPADatabaseManager {
         if (!dsPassword.isPresent()) {
             log.warn("Datasource password is missing.");
         }
+
+        int migrated = migrateAll(migration::migrate, migration::remaining);
+        int removed = migration.cleanup();
+        if (migrated > 0 || removed > 0) {
+            log.info("Migrated meta-data of {} artifact versions, removed {} orphaned meta-data rows.", migrated, removed);
+        }
+
+        migrated = migrateAll(contentMigration::migrate, contentMigration::remaining);
+        if (migrated > 0) {
+            log.info("Migrated content of {} artifact versions.", migrated);
+        }
+    }
+
+    /**
+     * Run the migration batches until there is nothing left to migrate.
+     * <p>
+     * All nodes migrate on start, so a batch fails (on a constraint, lock or deadlock) if another node
+     * migrates (some of) the same rows concurrently. Such a batch is retried with the rows
+     * not migrated yet, as long as the rows are being migrated by some node.
+     *
+     * @param batch migrates the next batch, returns the number of migrated rows
+     * @param remaining returns the number of rows left to migrate
+     * @return the number of rows migrated by this node
+     */
+    static int migrateAll(IntSupplier batch, LongSupplier remaining) {
+        int migrated = 0;
+        int failures = 0;
+        long left = Long.MAX_VALUE;
+        while (true) {
+            int count;
+            try {
+                count = batch.getAsInt();
+            } catch (RuntimeException e) {
+                if (!isConcurrentUpdate(e)) {
+                    throw e;
+                }
+                long stillLeft = remaining.getAsLong();
+                if (stillLeft < left) {
+                    failures = 0;
+                }
+                left = stillLeft;
+                if (++failures > MAX_BATCH_FAILURES) {
+                    throw e;
+                }
+                log.warn("Migration batch failed, possibly migrated concurrently by another node ({} rows left). Retrying...", left, e);
+                continue;
+            }
+            if (count == 0) {
+                return migrated;
+            }
+            migrated += count;
+        }
+    }
+
+    private static boolean isConcurrentUpdate(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PessimisticLockException || t instanceof LockTimeoutException || t instanceof LockAcquisitionException) {
+                return true;
+            }
+        }
+        return JPACache.isConstraintViolation(e);
     }
 
     void onStop(@Observes ShutdownEvent event) {
@@ -18,18 +18,46 @@ package io.apicurio.registry.storage.impl.jpa;
 
 import javax.enterprise.context.Dependent;
 
+import io.apicurio.registry.storage.ArtifactMetaDataDto;
+import io.apicurio.registry.storage.ArtifactVersionMetaDataDto;
 import io.apicurio.registry.storage.StoredArtifact;
-import io.apicurio.registry.storage.impl.jpa.entity.Artifact;
+import io.apicurio.registry.storage.impl.jpa.entity.ArtifactVersion;
 import io.apicurio.registry.content.ContentHandle;
 
 @Dependent
 public class JPAEntityMapper {
 
-    public StoredArtifact toStoredArtifact(Artifact artifact) {
+    public StoredArtifact toStoredArtifact(ArtifactVersion version, byte[] content) {
         return StoredArtifact.builder()
-                .id(artifact.getGlobalId())
-                .version(artifact.getVersion())
-                .content(ContentHandle.create(artifact.getContent()))
+                .id(version.getGlobalId())
+                .version(version.getVersion())
+                .content(ContentHandle.create(content))
                 .build();
     }
+
+    public ArtifactMetaDataDto toArtifactMetaDataDto(ArtifactVersion version) {
+        ArtifactMetaDataDto dto = new ArtifactMetaDataDto();
+        dto.setId(version.getArtifactId());
+        dto.setCreatedOn(version.getCreatedOn() != null ? version.getCreatedOn() : 0L);
+        dto.setModifiedOn(version.getModifiedOn() != null ? version.getModifiedOn() : 0L);
+        dto.setName(version.getName());
+        dto.setDescription(version.getDescription());
+        dto.setType(version.getType());
+        dto.setVersion(version.getVersion().intValue());
+        dto.setGlobalId(version.getGlobalId());
+        dto.setState(version.getState());
+        return dto;
+    }
+
+    public ArtifactVersionMetaDataDto toArtifactVersionMetaDataDto(ArtifactVersion version) {
+        ArtifactVersionMetaDataDto dto = new ArtifactVersionMetaDataDto();
+        dto.setCreatedOn(version.getCreatedOn() != null ? version.getCreatedOn() : 0L);
+        dto.setName(version.getName());
+        dto.setDescription(version.getDescription());
+        dto.setType(version.getType());
+        dto.setVersion(version.getVersion().intValue());
+        dto.setGlobalId(version.getGlobalId());
+        dto.setState(version.getState());
+        return dto;
+    }
 }
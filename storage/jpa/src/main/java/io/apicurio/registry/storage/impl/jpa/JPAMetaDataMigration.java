@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.apicurio.registry.storage.MetaDataKeys;
+import io.apicurio.registry.storage.impl.jpa.entity.ArtifactVersion;
+import io.apicurio.registry.storage.impl.jpa.entity.MetaData;
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+/**
+ * Moves the legacy key/value {@link MetaData} rows into the typed {@link ArtifactVersion} table,
+ * for the versions stored before the table was introduced.
+ */
+@ApplicationScoped
+public class JPAMetaDataMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Migrate the next batch of versions, each batch in its own transaction.
+     *
+     * @return the number of migrated versions, 0 once there is nothing left to migrate
+     */
+    @Transactional
+    public int migrate() {
+        // no content is loaded here
+        List<Object[]> versions = entityManager.createQuery(
+            "SELECT a.globalId, a.artifactId, a.version FROM Artifact a " +
+            "WHERE NOT EXISTS (SELECT v.globalId FROM ArtifactVersion v WHERE v.globalId = a.globalId)", Object[].class)
+                                               .setMaxResults(BATCH_SIZE)
+                                               .getResultList();
+
+        for (Object[] row : versions) {
+            Long globalId = (Long) row[0];
+            String artifactId = (String) row[1];
+            Long version = (Long) row[2];
+
+            Map<String, String> metaData = new HashMap<>();
+            entityManager.createQuery(
+                "SELECT m FROM MetaData m " +
+                "WHERE m.artifactId = :artifact_id AND m.version = :version", MetaData.class)
+                         .setParameter("artifact_id", artifactId)
+                         .setParameter("version", version)
+                         .getResultList()
+                         .forEach(md -> metaData.put(md.getKey(), md.getValue()));
+
+            String type = metaData.get(MetaDataKeys.TYPE);
+            String state = metaData.get(MetaDataKeys.STATE);
+            entityManager.persist(
+                ArtifactVersion.builder()
+                               .globalId(globalId)
+                               .artifactId(artifactId)
+                               .version(version)
+                               .type(type != null ? ArtifactType.fromValue(type) : null)
+                               .state(state != null ? ArtifactState.valueOf(state) : ArtifactState.ENABLED)
+                               .name(metaData.get(MetaDataKeys.NAME))
+                               .description(metaData.get(MetaDataKeys.DESCRIPTION))
+                               .createdOn(toLong(metaData.get(MetaDataKeys.CREATED_ON)))
+                               .modifiedOn(toLong(metaData.get(MetaDataKeys.MODIFIED_ON)))
+                               .build()
+            );
+
+            entityManager.createQuery(
+                "DELETE FROM MetaData m " +
+                "WHERE m.artifactId = :artifact_id AND m.version = :version")
+                         .setParameter("artifact_id", artifactId)
+                         .setParameter("version", version)
+                         .executeUpdate();
+        }
+        // fails here (rather than on commit) if another node migrated the same versions concurrently
+        entityManager.flush();
+        return versions.size();
+    }
+
+    /**
+     * @return the number of versions left to migrate
+     */
+    @Transactional
+    public long remaining() {
+        return entityManager.createQuery(
+            "SELECT count(a) FROM Artifact a " +
+            "WHERE NOT EXISTS (SELECT v.globalId FROM ArtifactVersion v WHERE v.globalId = a.globalId)", Long.class)
+                            .getSingleResult();
+    }
+
+    /**
+     * Remove the legacy meta-data rows left behind by deleted versions.
+     *
+     * @return the number of removed rows
+     */
+    @Transactional
+    public int cleanup() {
+        return entityManager.createQuery(
+            "DELETE FROM MetaData m " +
+            "WHERE NOT EXISTS (SELECT a.globalId FROM Artifact a WHERE a.artifactId = m.artifactId AND a.version = m.version)")
+                            .executeUpdate();
+    }
+
+    private static Long toLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+}
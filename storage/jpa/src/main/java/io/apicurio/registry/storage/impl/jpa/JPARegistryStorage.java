@@ -17,7 +17,6 @@
 package io.apicurio.registry.storage.impl.jpa;
 
 import io.apicurio.registry.content.ContentHandle;
-import io.apicurio.registry.content.canon.ContentCanonicalizer;
 import io.apicurio.registry.content.extract.ContentExtractor;
 import io.apicurio.registry.metrics.PersistenceExceptionLivenessApply;
 import io.apicurio.registry.metrics.PersistenceTimeoutReadinessApply;
@@ -27,12 +26,12 @@ import io.apicurio.registry.rest.beans.SearchOver;
 import io.apicurio.registry.rest.beans.SortOrder;
 import io.apicurio.registry.rest.beans.SearchedArtifact;
 import io.apicurio.registry.storage.ArtifactAlreadyExistsException;
+import io.apicurio.registry.storage.ArtifactContentDto;
 import io.apicurio.registry.storage.ArtifactMetaDataDto;
 import io.apicurio.registry.storage.ArtifactNotFoundException;
 import io.apicurio.registry.storage.ArtifactStateExt;
 import io.apicurio.registry.storage.ArtifactVersionMetaDataDto;
 import io.apicurio.registry.storage.EditableArtifactMetaDataDto;
-import io.apicurio.registry.storage.MetaDataKeys;
 import io.apicurio.registry.storage.RegistryStorage;
 import io.apicurio.registry.storage.RegistryStorageException;
 import io.apicurio.registry.storage.RuleAlreadyExistsException;
@@ -41,7 +40,8 @@ import io.apicurio.registry.storage.RuleNotFoundException;
 import io.apicurio.registry.storage.StoredArtifact;
 import io.apicurio.registry.storage.VersionNotFoundException;
 import io.apicurio.registry.storage.impl.jpa.entity.Artifact;
-import io.apicurio.registry.storage.impl.jpa.entity.MetaData;
+import io.apicurio.registry.storage.impl.jpa.entity.ArtifactVersion;
+import io.apicurio.registry.storage.impl.jpa.entity.Content;
 import io.apicurio.registry.storage.impl.jpa.entity.Rule;
 import io.apicurio.registry.storage.impl.jpa.entity.RuleConfig;
 import io.apicurio.registry.types.ArtifactState;
@@ -49,6 +49,7 @@ import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.types.RuleType;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProvider;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProviderFactory;
+import io.apicurio.registry.util.ContentHashUtil;
 import org.eclipse.microprofile.metrics.annotation.ConcurrentGauge;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Timed;
@@ -64,7 +65,6 @@ import static io.apicurio.registry.utils.StringUtil.isEmpty;
 import static java.util.Objects.requireNonNull;
 import static org.eclipse.microprofile.metrics.MetricUnits.MILLISECONDS;
 
-import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -74,7 +74,6 @@ import java.util.TreeSet;
 import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.function.Function;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -92,18 +91,31 @@ import javax.transaction.Transactional;
 public class JPARegistryStorage implements RegistryStorage {
 
     @Inject
-    EntityManager entityManager;
+    EntityManager primaryEntityManager;
 
     @Inject
     JPAEntityMapper mapper;
 
+    @Inject
+    JPACache cache;
+
+    @Inject
+    JPAReplica replica;
+
+    @Inject
+    JPAContentStore contentStore;
+
     @Inject
     ArtifactTypeUtilProviderFactory factory;
 
+    private EntityManager em() {
+        return replica.entityManager(primaryEntityManager);
+    }
+
     // TODO Could there be a race condition here? The new max+1 version is saved with a new artifact
     private long _getNextArtifactVersion(String artifactId) {
         requireNonNull(artifactId);
-        Long latest = entityManager.createQuery(
+        Long latest = em().createQuery(
             "SELECT MAX(a.version) FROM Artifact a " +
             "WHERE a.artifactId = :artifact_id", Long.class)
                                    .setParameter("artifact_id", artifactId)
@@ -111,22 +123,59 @@ public class JPARegistryStorage implements RegistryStorage {
         return latest != null ? latest + 1 : 1;
     }
 
-    private List<MetaData> _getMetaData(String artifactId, Long version) {
+    private ArtifactVersion _findVersion(String artifactId, long version) {
         requireNonNull(artifactId);
-        requireNonNull(version);
+        List<ArtifactVersion> list = em().createQuery(
+            "SELECT v FROM ArtifactVersion v " +
+            "WHERE v.artifactId = :artifact_id AND v.version = :version", ArtifactVersion.class)
+                                                  .setParameter("artifact_id", artifactId)
+                                                  .setParameter("version", version)
+                                                  .getResultList();
+        return list.isEmpty() ? null : list.get(0);
+    }
 
-        return entityManager.createQuery(
-            "SELECT m FROM MetaData m " +
-            "WHERE m.artifactId = :artifact_id AND m.version = :version", MetaData.class)
-                            .setParameter("artifact_id", artifactId)
-                            .setParameter("version", version)
-                            .getResultList();
+    private ArtifactVersion _getVersion(String artifactId, long version, EnumSet<ArtifactState> states) {
+        ArtifactVersion artifactVersion = _findVersion(artifactId, version);
+        if (artifactVersion == null) {
+            throw new VersionNotFoundException(artifactId, version);
+        }
+        ArtifactStateExt.validateState(states, artifactVersion.getState(), artifactId, version);
+        return artifactVersion;
+    }
+
+    private ArtifactVersion _getLatestVersion(String artifactId, EnumSet<ArtifactState> states) {
+        requireNonNull(artifactId);
+        TypedQuery<ArtifactVersion> query = em().createQuery(
+            "SELECT v FROM ArtifactVersion v " +
+            "WHERE v.artifactId = :artifact_id " +
+            (states != null ? "AND v.state IN :states " : "") +
+            "ORDER BY v.version DESC", ArtifactVersion.class)
+                                                         .setParameter("artifact_id", artifactId)
+                                                         .setMaxResults(1);
+        if (states != null) {
+            query.setParameter("states", states);
+        }
+        List<ArtifactVersion> list = query.getResultList();
+        if (list.isEmpty()) {
+            throw new ArtifactNotFoundException(artifactId);
+        }
+        ArtifactVersion artifactVersion = list.get(0);
+        ArtifactStateExt.logIfDeprecated(artifactId, artifactVersion.getState(), artifactVersion.getVersion());
+        return artifactVersion;
+    }
+
+    private ArtifactVersion _getVersion(long id) {
+        ArtifactVersion artifactVersion = em().find(ArtifactVersion.class, id);
+        if (artifactVersion == null) {
+            throw new ArtifactNotFoundException("GlobalId: " + id);
+        }
+        return artifactVersion;
     }
 
     private Rule _getRule(String artifactId, RuleType rule) {
         requireNonNull(rule); // TODO split null artifactId into separate method?
         try {
-            TypedQuery<Rule> res = entityManager.createQuery(
+            TypedQuery<Rule> res = em().createQuery(
                 "SELECT r FROM Rule r " +
                 "WHERE r.artifactId " + (artifactId == null ? "IS NULL" : "= :artifact_id") + " AND r.name = :name", Rule.class)
                                                 .setParameter("name", rule);
@@ -139,111 +188,145 @@ public class JPARegistryStorage implements RegistryStorage {
         }
     }
 
+    private List<RuleType> _getArtifactRules(String artifactId) {
+        _getLatestVersion(artifactId, null);
+
+        return em().createQuery("SELECT r.name FROM Rule r " +
+                                "WHERE r.artifactId = :artifact_id", RuleType.class)
+                   .setParameter("artifact_id", artifactId)
+                   .getResultList();
+    }
+
+    private List<RuleType> _getGlobalRules() {
+        return em().createQuery("SELECT r.name FROM Rule r " +
+                                "WHERE r.artifactId IS NULL", RuleType.class)
+                   .getResultList();
+    }
+
     private List<RuleConfig> _getRuleConfig(Rule rule) {
         requireNonNull(rule);
-        return entityManager.createQuery("SELECT rc FROM RuleConfig rc " +
+        return em().createQuery("SELECT rc FROM RuleConfig rc " +
                                          "WHERE rc.rule.id = :rule_id", RuleConfig.class)
                             .setParameter("rule_id", rule.getId())
                             .getResultList();
     }
 
-    private <T> T getMetaData(String artifactId, long version, String key, Function<MetaData, T> fn) {
-        MetaData metaData = entityManager.createQuery(
-            "SELECT m FROM MetaData m " +
-            "WHERE m.artifactId = :artifact_id AND m.version = :version AND m.key = :key", MetaData.class)
-                                         .setParameter("artifact_id", artifactId)
-                                         .setParameter("version", version)
-                                         .setParameter("key", key)
-                                         .getSingleResult();
-        return fn.apply(metaData);
-    }
-
-    private ArtifactState getState(String artifactId, long version) {
-        return getMetaData(artifactId, version, MetaDataKeys.STATE, md -> ArtifactState.valueOf(md.getValue()));
-    }
-
-    private Artifact _getArtifact(String artifactId, long version, EnumSet<ArtifactState> states) {
-        requireNonNull(artifactId);
-        try {
-            ArtifactState state = getState(artifactId, version);
-
-            ArtifactStateExt.validateState(states, state, artifactId, version);
-
-            return entityManager.createQuery("SELECT a FROM Artifact a " +
-                                             "WHERE a.artifactId = :artifact_id " +
-                                             "AND a.version = :version", Artifact.class)
-                                .setParameter("artifact_id", artifactId)
-                                .setParameter("version", version)
-                                .getSingleResult();
-        } catch (NoResultException ex) {
-            throw new VersionNotFoundException(artifactId, version, ex);
+    // the content LOB is only ever loaded for the already resolved version row
+    private StoredArtifact _getStoredArtifact(ArtifactVersion artifactVersion) {
+        Artifact artifact = cache.find(Artifact.class, artifactVersion.getGlobalId());
+        if (artifact == null) {
+            throw new ArtifactNotFoundException("GlobalId: " + artifactVersion.getGlobalId());
         }
-    }
-
-    private Artifact _getArtifact(String artifactId, EnumSet<ArtifactState> states) {
-        requireNonNull(artifactId);
-        List<Artifact> artifacts = entityManager.createQuery(
-            "SELECT a FROM Artifact a " +
-            "WHERE a.artifactId = :artifact_id " +
-            "ORDER BY a.version DESC ", Artifact.class)
-                                                .setParameter("artifact_id", artifactId)
-                                                .getResultList();
-
-        for (Artifact artifact : artifacts) {
-            ArtifactState state = getState(artifactId, artifact.getVersion());
-            if (states == null || states.contains(state)) {
-                ArtifactStateExt.logIfDeprecated(artifactId, state, artifact.getVersion());
-                return artifact;
+        byte[] content;
+        if (artifact.getContentHash() != null) {
+            Content stored = cache.find(Content.class, artifact.getContentHash());
+            if (stored == null) {
+                throw new RegistryStorageException("Missing content " + artifact.getContentHash() + " of global id " + artifact.getGlobalId());
             }
+            content = stored.getContent();
+        } else {
+            // not migrated (yet), see JPAContentMigration
+            content = em().createQuery(
+                "SELECT a.legacyContent FROM Artifact a " +
+                "WHERE a.globalId = :global_id", byte[].class)
+                                   .setParameter("global_id", artifactVersion.getGlobalId())
+                                   .getSingleResult();
         }
-
-        throw new ArtifactNotFoundException(artifactId);
+        return mapper.toStoredArtifact(artifactVersion, content);
     }
 
-    private Artifact _getArtifact(long id, EnumSet<ArtifactState> states) {
-        Artifact artifact = entityManager.createQuery(
-            "SELECT a FROM Artifact a " +
-            "WHERE a.globalId = :global_id", Artifact.class)
-                                         .setParameter("global_id", id)
-                                         .getSingleResult();
-
-        ArtifactState state = getState(artifact.getArtifactId(), artifact.getVersion());
-
-        ArtifactStateExt.validateState(states, state, artifact.getArtifactId(), artifact.getVersion());
-
-        return artifact;
+    private List<String> _getContentHashes(String artifactId, Long version) {
+        TypedQuery<String> query = em().createQuery(
+            "SELECT DISTINCT a.contentHash FROM Artifact a " +
+            "WHERE a.artifactId = :artifact_id " +
+            (version != null ? "AND a.version = :version " : "") +
+            "AND a.contentHash IS NOT NULL", String.class)
+                                                .setParameter("artifact_id", artifactId);
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        return query.getResultList();
     }
 
-    private void updateArtifactState(Artifact artifact, ArtifactState state) {
+    private void updateArtifactState(ArtifactVersion artifactVersion, ArtifactState state) {
         if (state == ArtifactState.DELETED) {
-            deleteArtifactVersion(artifact.getArtifactId(), artifact.getVersion());
+            deleteArtifactVersion(artifactVersion.getArtifactId(), artifactVersion.getVersion());
         } else {
-            MetaData md = getMetaData(artifact.getArtifactId(), artifact.getVersion(), MetaDataKeys.STATE, Function.identity());
-            ArtifactState previousState = ArtifactState.valueOf(md.getValue());
-            ArtifactStateExt.applyState(s -> md.setValue(s.name()), previousState, state);
+            ArtifactStateExt.applyState(artifactVersion::setState, artifactVersion.getState(), state);
         }
     }
 
-    private void extractMetaData(ArtifactType artifactType, ContentHandle content, MetaDataMapperUpdater mdmu) {
+    private ArtifactVersion createVersion(Artifact artifact, ArtifactType artifactType, ContentHandle content) {
+        long now = System.currentTimeMillis();
+        ArtifactVersion.ArtifactVersionBuilder builder = ArtifactVersion.builder()
+                                                                        .globalId(artifact.getGlobalId())
+                                                                        .artifactId(artifact.getArtifactId())
+                                                                        .version(artifact.getVersion())
+                                                                        .type(artifactType)
+                                                                        .state(ArtifactState.ENABLED)
+                                                                        .createdOn(now)
+                                                                        .modifiedOn(now);
+
+        // copy name and description .. if previous version (still) exists
+        ArtifactVersion previous = _findVersion(artifact.getArtifactId(), artifact.getVersion() - 1);
+        if (previous != null) {
+            builder.createdOn(previous.getCreatedOn())
+                   .name(previous.getName())
+                   .description(previous.getDescription());
+        }
+
         ArtifactTypeUtilProvider provider = factory.getArtifactTypeProvider(artifactType);
         ContentExtractor extractor = provider.getContentExtractor();
         EditableMetaData emd = extractor.extract(content);
         if (extractor.isExtracted(emd)) {
             if (!isEmpty(emd.getName())) {
-                mdmu.update(MetaDataKeys.NAME, emd.getName());
+                builder.name(emd.getName());
             }
             if (!isEmpty(emd.getDescription())) {
-                mdmu.update(MetaDataKeys.DESCRIPTION, emd.getDescription());
+                builder.description(emd.getDescription());
             }
         }
+
+        ArtifactVersion artifactVersion = builder.build();
+        em().persist(artifactVersion);
+        return artifactVersion;
     }
 
-    private ArtifactSearchResults buildSearchResultFromIds(List<String> artifactIds, Integer itemCount) {
+    private void updateMetaData(ArtifactVersion artifactVersion, EditableArtifactMetaDataDto metaData) {
+        if (metaData.getName() != null) {
+            artifactVersion.setName(metaData.getName());
+        }
+        if (metaData.getDescription() != null) {
+            artifactVersion.setDescription(metaData.getDescription());
+        }
+        artifactVersion.setModifiedOn(System.currentTimeMillis());
+    }
+
+    // versions stored before the canonical hash column was introduced have to be canonicalized one by one
+    private Long _getLegacyVersion(String artifactId, ArtifactType artifactType, String canonicalHash) {
+        List<Object[]> list = em().createQuery(
+            "SELECT a.version, c.content FROM Artifact a, Content c " +
+            "WHERE c.contentHash = a.contentHash " +
+            "AND a.artifactId = :artifact_id " +
+            "AND a.canonicalHash IS NULL " +
+            "ORDER BY a.version DESC ", Object[].class)
+                                           .setParameter("artifact_id", artifactId)
+                                           .getResultList();
+        for (Object[] candidate : list) {
+            ContentHandle candidateContent = ContentHandle.create((byte[]) candidate[1]);
+            if (canonicalHash.equals(ContentHashUtil.legacyCanonicalHash(factory, artifactType, candidateContent))) {
+                return (Long) candidate[0];
+            }
+        }
+        return null;
+    }
+
+    private ArtifactSearchResults buildSearchResultFromVersions(List<ArtifactVersion> versions, Integer itemCount) {
 
         final List<ArtifactMetaDataDto> artifactsMetaData = new ArrayList<>();
-        for (String artifactId: artifactIds) {
+        for (ArtifactVersion version : versions) {
 
-            artifactsMetaData.add(getArtifactMetaData(artifactId));
+            artifactsMetaData.add(mapper.toArtifactMetaDataDto(version));
         }
 
         return buildSearchResultsFromMetaData(artifactsMetaData, itemCount);
@@ -283,13 +366,13 @@ public class JPARegistryStorage implements RegistryStorage {
 
         switch (searchOver) {
         case description:
-            return "AND (m.key= 'description' (0 < LOCATE(:search, m.value))) ";
+            return "AND (0 < LOCATE(:search, v.description)) ";
         case name:
-            return "AND (m.key= 'name' and (0 < LOCATE(:search, m.value))) ";
+            return "AND (0 < LOCATE(:search, v.name)) ";
         case labels:
             //TODO not implemented yet
         default:
-            return "AND (0 < LOCATE(:search, m.value)) ";
+            return "AND (0 < LOCATE(:search, v.artifactId) OR 0 < LOCATE(:search, v.name) OR 0 < LOCATE(:search, v.description)) ";
         }
 
     }
@@ -299,26 +382,34 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public boolean isAlive() {
-        return (getGlobalRules() != null);
+        // checks the primary
+        try {
+            return (_getGlobalRules() != null);
+        } catch (PersistenceException ex) {
+            throw new RegistryStorageException(ex);
+        }
     }
 
     @Override
     @Transactional
     public void updateArtifactState(String artifactId, ArtifactState state) {
-        Artifact artifact = _getArtifact(artifactId, null);
-        updateArtifactState(artifact, state);
+        replica.written();
+        ArtifactVersion artifactVersion = _getLatestVersion(artifactId, null);
+        updateArtifactState(artifactVersion, state);
     }
 
     @Override
     @Transactional
     public void updateArtifactState(String artifactId, ArtifactState state, Integer version) {
-        Artifact artifact = _getArtifact(artifactId, version.longValue(), null);
-        updateArtifactState(artifact, state);
+        replica.written();
+        ArtifactVersion artifactVersion = _getVersion(artifactId, version.longValue(), null);
+        updateArtifactState(artifactVersion, state);
     }
 
     @Override
     @Transactional
     public CompletionStage<ArtifactMetaDataDto> createArtifact(String artifactId, ArtifactType artifactType, ContentHandle content) throws ArtifactAlreadyExistsException, RegistryStorageException {
+        replica.written();
         requireNonNull(artifactId);
         requireNonNull(artifactType);
         requireNonNull(content);
@@ -333,21 +424,16 @@ public class JPARegistryStorage implements RegistryStorage {
             Artifact artifact = Artifact.builder()
                                         .artifactId(artifactId)
                                         .version(nextVersion)
-                                        .content(content.bytes())
+                                        .canonicalHash(ContentHashUtil.storedCanonicalHash(factory, artifactType, content))
+                                        .contentHash(contentStore.store(content.bytes()))
+                                        .legacyContent(Artifact.NO_CONTENT)
                                         .build();
 
-            entityManager.persist(artifact);
+            cache.persist(artifact);
 
-            MetaDataMapperUpdater mdmu = new MetaDataMapperUpdater()
-                .update(MetaDataKeys.STATE, ArtifactState.ENABLED.name())
-                .update(MetaDataKeys.TYPE, artifactType.value());
+            ArtifactVersion artifactVersion = createVersion(artifact, artifactType, content);
 
-            extractMetaData(artifactType, content, mdmu);
-
-            ArtifactMetaDataDto amdd = mdmu.persistUpdate(entityManager, artifactId, nextVersion)
-                                           .update(artifact)
-                                           .toArtifactMetaDataDto();
-            return CompletableFuture.completedFuture(amdd);
+            return CompletableFuture.completedFuture(mapper.toArtifactMetaDataDto(artifactVersion));
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
         }
@@ -356,10 +442,11 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public SortedSet<Long> deleteArtifact(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
 
-            List<Long> res1 = entityManager.createQuery(
+            List<Long> res1 = em().createQuery(
                 "SELECT a.version FROM Artifact a " +
                 "WHERE a.artifactId = :artifact_id " +
                 "ORDER BY a.version DESC", Long.class)
@@ -370,21 +457,26 @@ public class JPARegistryStorage implements RegistryStorage {
                 throw new ArtifactNotFoundException(artifactId);
             }
 
-            entityManager.createQuery(
+            List<String> contentHashes = _getContentHashes(artifactId, null);
+
+            em().createQuery(
                 "DELETE FROM Artifact a " +
                 "WHERE a.artifactId = :artifact_id")
                          .setParameter("artifact_id", artifactId)
                          .executeUpdate();
 
+            // content is shared, so it can only be removed once no version references it anymore
+            contentStore.deleteUnreferenced(contentHashes);
+
             // delete meta data
-            entityManager.createQuery(
-                "DELETE FROM MetaData m " +
-                "WHERE m.artifactId = :artifact_id")
+            em().createQuery(
+                "DELETE FROM ArtifactVersion v " +
+                "WHERE v.artifactId = :artifact_id")
                          .setParameter("artifact_id", artifactId)
                          .executeUpdate();
 
             // delete rules
-            entityManager.createQuery(
+            em().createQuery(
                 "DELETE FROM Rule r " +
                 "WHERE r.artifactId = :artifact_id")
                          .setParameter("artifact_id", artifactId)
@@ -400,20 +492,23 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public StoredArtifact getArtifact(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        try {
-            requireNonNull(artifactId);
+        return replica.read(() -> {
+            try {
+                requireNonNull(artifactId);
 
-            Artifact artifact = _getArtifact(artifactId, ArtifactStateExt.ACTIVE_STATES);
+                ArtifactVersion artifactVersion = _getLatestVersion(artifactId, ArtifactStateExt.ACTIVE_STATES);
 
-            return mapper.toStoredArtifact(artifact);
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+                return _getStoredArtifact(artifactVersion);
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     @Override
     @Transactional
     public CompletionStage<ArtifactMetaDataDto> updateArtifact(String artifactId, ArtifactType artifactType, ContentHandle content) throws ArtifactNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
             requireNonNull(artifactType);
@@ -427,23 +522,16 @@ public class JPARegistryStorage implements RegistryStorage {
             Artifact artifact = Artifact.builder()
                                         .artifactId(artifactId)
                                         .version(nextVersion)
-                                        .content(content.bytes())
+                                        .canonicalHash(ContentHashUtil.storedCanonicalHash(factory, artifactType, content))
+                                        .contentHash(contentStore.store(content.bytes()))
+                                        .legacyContent(Artifact.NO_CONTENT)
                                         .build();
 
-            entityManager.persist(artifact);
-
-            MetaDataMapperUpdater mdmu = new MetaDataMapperUpdater()
-                .update(MetaDataKeys.STATE, ArtifactState.ENABLED.name())
-                .update(MetaDataKeys.TYPE, artifactType.value())
-                // copy name and description .. if previous version (still) exists
-                .update(_getMetaData(artifactId, nextVersion - 1), MetaDataKeys.NAME, MetaDataKeys.DESCRIPTION);
+            cache.persist(artifact);
 
-            extractMetaData(artifactType, content, mdmu);
+            ArtifactVersion artifactVersion = createVersion(artifact, artifactType, content);
 
-            ArtifactMetaDataDto amdd = mdmu.persistUpdate(entityManager, artifactId, nextVersion)
-                                           .update(artifact)
-                                           .toArtifactMetaDataDto();
-            return CompletableFuture.completedFuture(amdd);
+            return CompletableFuture.completedFuture(mapper.toArtifactMetaDataDto(artifactVersion));
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
         }
@@ -452,51 +540,49 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public Set<String> getArtifactIds() {
-        try {
-            List<String> ids = entityManager.createQuery(
-                "SELECT a.artifactId FROM Artifact a", String.class)
-                                            .getResultList();
+        return replica.read(() -> {
+            try {
+                List<String> ids = em().createQuery(
+                    "SELECT a.artifactId FROM Artifact a", String.class)
+                                                .getResultList();
 
-            return new HashSet<>(ids);
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+                return new HashSet<>(ids);
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     @Override
     @Transactional
     public ArtifactSearchResults searchArtifacts(String search, Integer offset,
             Integer limit, SearchOver searchOver, SortOrder sortOrder) {
+        return replica.read(() -> {
 
-        final String countQuery =
-                "SELECT count (m.artifactId)  FROM MetaData m "
-                        + "WHERE m.version = "
-                        + "(SELECT max(m2.version) "
-                        + "FROM MetaData m2 WHERE m.artifactId = m2.artifactId) "
-                        + buildSearchAndClauseFromSearchOver(searchOver)
-                + " AND m.artifactId IN (select a.artifactId from Artifact a)";
-
-        final String searchQuery =
-                "SELECT m.artifactId FROM MetaData m "
-                        + "WHERE m.version = "
-                        + "(SELECT max(m2.version) "
-                        + "FROM MetaData m2 WHERE m.artifactId = m2.artifactId) "
-                        + buildSearchAndClauseFromSearchOver(searchOver)
-                        + " AND m.artifactId IN (select a.artifactId from Artifact a) "
-                        + "ORDER BY m.id " + sortOrder
-                        .value();
-
-        final Integer itemsCount = entityManager.createQuery(countQuery, Long.class)
-                .setParameter("search", search)
-                .getSingleResult().intValue();
-
-        final List<String> matchedArtifacts = entityManager.createQuery(searchQuery, String.class)
-                .setParameter("search", search)
-                .setFirstResult(offset)
-                .setMaxResults(limit)
-                .getResultList();
-
-        return buildSearchResultFromIds(matchedArtifacts, itemsCount);
+            // match the latest version of each artifact
+            final String latestVersion =
+                    "WHERE v.version = "
+                            + "(SELECT max(v2.version) "
+                            + "FROM ArtifactVersion v2 WHERE v2.artifactId = v.artifactId) "
+                            + buildSearchAndClauseFromSearchOver(searchOver);
+
+            final String countQuery = "SELECT count(v.globalId) FROM ArtifactVersion v " + latestVersion;
+
+            final String searchQuery = "SELECT v FROM ArtifactVersion v " + latestVersion
+                            + "ORDER BY v.artifactId " + sortOrder.value();
+
+            final Integer itemsCount = em().createQuery(countQuery, Long.class)
+                    .setParameter("search", search)
+                    .getSingleResult().intValue();
+
+            final List<ArtifactVersion> matchedArtifacts = em().createQuery(searchQuery, ArtifactVersion.class)
+                    .setParameter("search", search)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList();
+
+            return buildSearchResultFromVersions(matchedArtifacts, itemsCount);
+        });
     }
 
     // =======================================================
@@ -504,17 +590,17 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public ArtifactMetaDataDto getArtifactMetaData(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        try {
-            requireNonNull(artifactId);
+        return replica.read(() -> {
+            try {
+                requireNonNull(artifactId);
 
-            Artifact artifact = _getArtifact(artifactId, ArtifactStateExt.ACTIVE_STATES);
+                ArtifactVersion artifactVersion = _getLatestVersion(artifactId, ArtifactStateExt.ACTIVE_STATES);
 
-            return new MetaDataMapperUpdater(_getMetaData(artifactId, artifact.getVersion()))
-                .update(artifact)
-                .toArtifactMetaDataDto();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+                return mapper.toArtifactMetaDataDto(artifactVersion);
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     /**
@@ -522,74 +608,61 @@ public class JPARegistryStorage implements RegistryStorage {
      */
     @Override
     public ArtifactMetaDataDto getArtifactMetaData(String artifactId, ContentHandle content) throws ArtifactNotFoundException, RegistryStorageException {
-        try {
-            requireNonNull(artifactId);
-
-            // Get the meta-data for the artifact
-            ArtifactMetaDataDto metaData = getArtifactMetaData(artifactId);
-
-            // Create a canonicalizer for the artifact based on its type, and then 
-            // canonicalize the inbound content
-            ArtifactTypeUtilProvider provider = factory.getArtifactTypeProvider(metaData.getType());
-            ContentCanonicalizer canonicalizer = provider.getContentCanonicalizer();
-            ContentHandle canonicalContent = canonicalizer.canonicalize(content);
-            byte[] canonicalBytes = canonicalContent.bytes();
-
-            Artifact artifact = null;
-            List<Artifact> list = entityManager.createQuery(
-                "SELECT a FROM Artifact a " +
-                "WHERE a.artifactId = :artifact_id " +
-                "ORDER BY a.version DESC ", Artifact.class)
-                                               .setParameter("artifact_id", artifactId)
-                                               .getResultList();
-            for (Artifact candidateArtifact : list) {
-                ContentHandle candidateContent = ContentHandle.create(candidateArtifact.getContent());
-                ContentHandle canonicalCandidateContent = canonicalizer.canonicalize(candidateContent);
-                byte[] candidateBytes = canonicalCandidateContent.bytes();
-                if (Arrays.equals(canonicalBytes, candidateBytes)) {
-                    artifact = candidateArtifact;
-                    break;
+        return replica.read(() -> {
+            try {
+                requireNonNull(artifactId);
+
+                // Get the meta-data for the artifact
+                ArtifactMetaDataDto metaData = getArtifactMetaData(artifactId);
+
+                // Hash the canonical form of the inbound content, based on the artifact type,
+                // and look the version up by the hash
+                String canonicalHash = ContentHashUtil.canonicalHash(factory, metaData.getType(), content);
+                List<Long> list = em().createQuery(
+                    "SELECT a.version FROM Artifact a " +
+                    "WHERE a.artifactId = :artifact_id " +
+                    "AND a.canonicalHash = :canonical_hash " +
+                    "ORDER BY a.version DESC ", Long.class)
+                                                   .setParameter("artifact_id", artifactId)
+                                                   .setParameter("canonical_hash", canonicalHash)
+                                                   .setMaxResults(1)
+                                                   .getResultList();
+                Long version = list.isEmpty() ? _getLegacyVersion(artifactId, metaData.getType(), canonicalHash) : list.get(0);
+
+                if (version == null) {
+                    throw new ArtifactNotFoundException(artifactId);
                 }
-            }
 
-            if (artifact == null) {
-                throw new ArtifactNotFoundException(artifactId);
+                return mapper.toArtifactMetaDataDto(_getVersion(artifactId, version, null));
+            } catch (PersistenceException e) {
+                throw new RegistryStorageException(e);
             }
-
-            return new MetaDataMapperUpdater(_getMetaData(artifactId, artifact.getVersion()))
-                .update(artifact)
-                .toArtifactMetaDataDto();
-        } catch (PersistenceException e) {
-            throw new RegistryStorageException(e);
-        }
+        });
     }
 
     @Override
     @Transactional
     public ArtifactMetaDataDto getArtifactMetaData(long id) throws ArtifactNotFoundException, RegistryStorageException {
-        try {
-            Artifact artifact = _getArtifact(id, null);
-
-            return new MetaDataMapperUpdater(_getMetaData(artifact.getArtifactId(), artifact.getVersion()))
-                .update(artifact)
-                .toArtifactMetaDataDto();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+        return replica.read(() -> {
+            try {
+                return mapper.toArtifactMetaDataDto(_getVersion(id));
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     @Override
     @Transactional
     public void updateArtifactMetaData(String artifactId, EditableArtifactMetaDataDto metaData) throws ArtifactNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
             requireNonNull(metaData);
 
-            Artifact artifact = _getArtifact(artifactId, ArtifactStateExt.ACTIVE_STATES);
+            ArtifactVersion artifactVersion = _getLatestVersion(artifactId, ArtifactStateExt.ACTIVE_STATES);
 
-            new MetaDataMapperUpdater(_getMetaData(artifactId, artifact.getVersion()))
-                .update(metaData)
-                .persistUpdate(entityManager, artifactId, artifact.getVersion());
+            updateMetaData(artifactVersion, metaData);
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
         }
@@ -598,18 +671,15 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public List<RuleType> getArtifactRules(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        try {
-            requireNonNull(artifactId);
+        return replica.read(() -> {
+            try {
+                requireNonNull(artifactId);
 
-            _getArtifact(artifactId, null);
-
-            return entityManager.createQuery("SELECT r.name FROM Rule r " +
-                                             "WHERE r.artifactId = :artifact_id", RuleType.class)
-                                .setParameter("artifact_id", artifactId)
-                                .getResultList();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+                return _getArtifactRules(artifactId);
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     /**
@@ -619,12 +689,13 @@ public class JPARegistryStorage implements RegistryStorage {
     @Transactional
     public void createArtifactRule(String artifactId, RuleType rule, RuleConfigurationDto config)
     throws ArtifactNotFoundException, RuleAlreadyExistsException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
             requireNonNull(rule);
             requireNonNull(config);
 
-            if (getArtifactRules(artifactId).contains(rule)) {
+            if (_getArtifactRules(artifactId).contains(rule)) {
                 throw new RuleAlreadyExistsException(rule);
             }
 
@@ -633,11 +704,11 @@ public class JPARegistryStorage implements RegistryStorage {
                                   .name(rule)
                                   .build();
 
-            entityManager.persist(ruleEntity);
+            em().persist(ruleEntity);
 
             new RuleConfigMapperUpdater()
                 .update(config)
-                .persistUpdate(entityManager, ruleEntity);
+                .persistUpdate(em(), ruleEntity);
 
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
@@ -647,12 +718,13 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public void deleteArtifactRules(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
 
-            _getArtifact(artifactId, null);
+            _getLatestVersion(artifactId, null);
 
-            entityManager.createQuery("DELETE FROM Rule r " +
+            em().createQuery("DELETE FROM Rule r " +
                                       "WHERE r.artifactId = :artifact_id")
                          .setParameter("artifact_id", artifactId)
                          .executeUpdate();
@@ -669,17 +741,19 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     public RuleConfigurationDto getArtifactRule(String artifactId, RuleType rule)
     throws ArtifactNotFoundException, RuleNotFoundException, RegistryStorageException {
-        try {
-            requireNonNull(artifactId);
-            requireNonNull(rule);
+        return replica.read(() -> {
+            try {
+                requireNonNull(artifactId);
+                requireNonNull(rule);
 
-            Rule res1 = _getRule(artifactId, rule);
+                Rule res1 = _getRule(artifactId, rule);
 
-            return new RuleConfigMapperUpdater(_getRuleConfig(res1))
-                .toRuleConfigurationDto();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+                return new RuleConfigMapperUpdater(_getRuleConfig(res1))
+                    .toRuleConfigurationDto();
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     /**
@@ -689,6 +763,7 @@ public class JPARegistryStorage implements RegistryStorage {
     @Transactional
     public void updateArtifactRule(String artifactId, RuleType rule, RuleConfigurationDto config)
     throws ArtifactNotFoundException, RuleNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
             requireNonNull(rule);
@@ -698,7 +773,7 @@ public class JPARegistryStorage implements RegistryStorage {
 
             new RuleConfigMapperUpdater(_getRuleConfig(ruleEntity))
                 .update(config)
-                .persistUpdate(entityManager, ruleEntity);
+                .persistUpdate(em(), ruleEntity);
 
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
@@ -712,13 +787,14 @@ public class JPARegistryStorage implements RegistryStorage {
     @Transactional
     public void deleteArtifactRule(String artifactId, RuleType rule)
     throws ArtifactNotFoundException, RuleNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
             requireNonNull(rule);
 
-            _getArtifact(artifactId, null);
+            _getLatestVersion(artifactId, null);
 
-            int affected = entityManager.createQuery("DELETE FROM Rule r " +
+            int affected = em().createQuery("DELETE FROM Rule r " +
                                                      "WHERE r.artifactId = :artifact_id AND r.name = :name")
                                         .setParameter("artifact_id", artifactId)
                                         .setParameter("name", rule)
@@ -735,59 +811,87 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public SortedSet<Long> getArtifactVersions(String artifactId) throws ArtifactNotFoundException, RegistryStorageException {
-        try {
-            requireNonNull(artifactId);
+        return replica.read(() -> {
+            try {
+                requireNonNull(artifactId);
+
+                List<Long> versions = em().createQuery(
+                    "SELECT a.version FROM Artifact a " +
+                    "WHERE a.artifactId = :artifact_id " +
+                    "ORDER BY a.version DESC", Long.class)
+                                                   .setParameter("artifact_id", artifactId)
+                                                   .getResultList();
+
+                if (versions.isEmpty()) {
+                    throw new ArtifactNotFoundException(artifactId);
+                }
 
-            List<Long> versions = entityManager.createQuery(
-                "SELECT a.version FROM Artifact a " +
-                "WHERE a.artifactId = :artifact_id " +
-                "ORDER BY a.version DESC", Long.class)
-                                               .setParameter("artifact_id", artifactId)
-                                               .getResultList();
+                return new TreeSet<>(versions);
 
-            if (versions.isEmpty()) {
-                throw new ArtifactNotFoundException(artifactId);
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
             }
-
-            return new TreeSet<>(versions);
-
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+        });
     }
 
     @Override
     @Transactional
     public StoredArtifact getArtifactVersion(long id) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        try {
-            Artifact artifact = _getArtifact(id, ArtifactStateExt.ACTIVE_STATES);
+        return replica.read(() -> {
+            try {
+                ArtifactVersion artifactVersion = _getVersion(id);
+                ArtifactStateExt.validateState(ArtifactStateExt.ACTIVE_STATES, artifactVersion.getState(),
+                                               artifactVersion.getArtifactId(), artifactVersion.getVersion());
+
+                return _getStoredArtifact(artifactVersion);
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
+    }
 
-            return mapper.toStoredArtifact(artifact);
-        } catch (NoResultException ex) {
-            throw new ArtifactNotFoundException(ex);
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+    @Override
+    @Transactional
+    public ArtifactContentDto getArtifactContent(long id) throws ArtifactNotFoundException, RegistryStorageException {
+        return replica.read(() -> {
+            try {
+                ArtifactVersion artifactVersion = _getVersion(id);
+                // same rules as getArtifactVersion(long)
+                ArtifactStateExt.validateState(ArtifactStateExt.ACTIVE_STATES, artifactVersion.getState(),
+                                               artifactVersion.getArtifactId(), artifactVersion.getVersion());
+                return ArtifactContentDto.builder()
+                                         .metaData(mapper.toArtifactMetaDataDto(artifactVersion))
+                                         .content(_getStoredArtifact(artifactVersion).getContent())
+                                         .build();
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     @Override
     @Transactional
     public StoredArtifact getArtifactVersion(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        requireNonNull(artifactId);
-        try {
-            return mapper.toStoredArtifact(_getArtifact(artifactId, version, ArtifactStateExt.ACTIVE_STATES));
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+        return replica.read(() -> {
+            requireNonNull(artifactId);
+            try {
+                return _getStoredArtifact(_getVersion(artifactId, version, ArtifactStateExt.ACTIVE_STATES));
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     @Override
     @Transactional
     public void deleteArtifactVersion(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
+        replica.written();
         requireNonNull(artifactId);
         try {
+            List<String> contentHashes = _getContentHashes(artifactId, version);
+
             // TODO ArtifactVersionNotFoundEx ?
-            int affected = entityManager.createQuery("DELETE FROM Artifact a " +
+            int affected = em().createQuery("DELETE FROM Artifact a " +
                                                      "WHERE a.artifactId = :artifact_id AND a.version = :version")
                                         .setParameter("artifact_id", artifactId)
                                         .setParameter("version", version)
@@ -795,6 +899,15 @@ public class JPARegistryStorage implements RegistryStorage {
             if (affected == 0) {
                 throw new VersionNotFoundException(artifactId, version);
             }
+
+            // content is shared, so it can only be removed once no version references it anymore
+            contentStore.deleteUnreferenced(contentHashes);
+
+            em().createQuery("DELETE FROM ArtifactVersion v " +
+                                      "WHERE v.artifactId = :artifact_id AND v.version = :version")
+                         .setParameter("artifact_id", artifactId)
+                         .setParameter("version", version)
+                         .executeUpdate();
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
         }
@@ -803,29 +916,26 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public ArtifactVersionMetaDataDto getArtifactVersionMetaData(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        requireNonNull(artifactId);
-        try {
-            Artifact artifact = _getArtifact(artifactId, version, null);
-
-            return new MetaDataMapperUpdater(_getMetaData(artifactId, version))
-                .update(artifact)
-                .toArtifactVersionMetaDataDto();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+        return replica.read(() -> {
+            requireNonNull(artifactId);
+            try {
+                return mapper.toArtifactVersionMetaDataDto(_getVersion(artifactId, version, null));
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     @Override
     @Transactional
     public void updateArtifactVersionMetaData(String artifactId, long version, EditableArtifactMetaDataDto metaData) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
+        replica.written();
         requireNonNull(artifactId);
         requireNonNull(metaData);
         try {
-            _getArtifact(artifactId, version, ArtifactStateExt.ACTIVE_STATES);
+            ArtifactVersion artifactVersion = _getVersion(artifactId, version, ArtifactStateExt.ACTIVE_STATES);
 
-            new MetaDataMapperUpdater(_getMetaData(artifactId, version))
-                .update(metaData)
-                .persistUpdate(entityManager, artifactId, version);
+            updateMetaData(artifactVersion, metaData);
 
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
@@ -835,16 +945,16 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public void deleteArtifactVersionMetaData(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
+        replica.written();
         try {
             requireNonNull(artifactId);
 
-            _getArtifact(artifactId, null);
+            ArtifactVersion artifactVersion = _getVersion(artifactId, version, null);
 
-            entityManager.createQuery("DELETE FROM MetaData md " +
-                                      "WHERE md.artifactId = :artifact_id AND md.version = :version")
-                         .setParameter("artifact_id", artifactId)
-                         .setParameter("version", version)
-                         .executeUpdate();
+            // only the editable meta-data
+            artifactVersion.setName(null);
+            artifactVersion.setDescription(null);
+            artifactVersion.setModifiedOn(System.currentTimeMillis());
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
         }
@@ -853,13 +963,13 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public List<RuleType> getGlobalRules() throws RegistryStorageException {
-        try {
-            return entityManager.createQuery("SELECT r.name FROM Rule r " +
-                                             "WHERE r.artifactId IS NULL", RuleType.class)
-                                .getResultList();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+        return replica.read(() -> {
+            try {
+                return _getGlobalRules();
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     /**
@@ -869,11 +979,12 @@ public class JPARegistryStorage implements RegistryStorage {
     @Transactional
     public void createGlobalRule(RuleType rule, RuleConfigurationDto config)
     throws RuleAlreadyExistsException, RegistryStorageException {
+        replica.written();
         requireNonNull(rule);
         requireNonNull(config);
         try {
 
-            if (getGlobalRules().contains(rule))
+            if (_getGlobalRules().contains(rule))
                 throw new RuleAlreadyExistsException(rule);
 
             Rule ruleEntity = Rule.builder()
@@ -881,11 +992,11 @@ public class JPARegistryStorage implements RegistryStorage {
                                   .name(rule)
                                   .build();
 
-            entityManager.persist(ruleEntity);
+            em().persist(ruleEntity);
 
             new RuleConfigMapperUpdater()
                 .update(config)
-                .persistUpdate(entityManager, ruleEntity);
+                .persistUpdate(em(), ruleEntity);
 
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
@@ -895,8 +1006,9 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public void deleteGlobalRules() throws RegistryStorageException {
+        replica.written();
         try {
-            entityManager.createQuery("DELETE FROM Rule r " +
+            em().createQuery("DELETE FROM Rule r " +
                                       "WHERE r.artifactId IS NULL")
                          .executeUpdate();
         } catch (PersistenceException ex) {
@@ -911,14 +1023,16 @@ public class JPARegistryStorage implements RegistryStorage {
     @Transactional
     public RuleConfigurationDto getGlobalRule(RuleType rule)
     throws RuleNotFoundException, RegistryStorageException {
-        requireNonNull(rule);
-        try {
-            Rule ruleEntity = _getRule(null, rule);
-            return new RuleConfigMapperUpdater(_getRuleConfig(ruleEntity))
-                .toRuleConfigurationDto();
-        } catch (PersistenceException ex) {
-            throw new RegistryStorageException(ex);
-        }
+        return replica.read(() -> {
+            requireNonNull(rule);
+            try {
+                Rule ruleEntity = _getRule(null, rule);
+                return new RuleConfigMapperUpdater(_getRuleConfig(ruleEntity))
+                    .toRuleConfigurationDto();
+            } catch (PersistenceException ex) {
+                throw new RegistryStorageException(ex);
+            }
+        });
     }
 
     /**
@@ -928,13 +1042,14 @@ public class JPARegistryStorage implements RegistryStorage {
     @Transactional
     public void updateGlobalRule(RuleType rule, RuleConfigurationDto config)
     throws RuleNotFoundException, RegistryStorageException {
+        replica.written();
         requireNonNull(rule);
         requireNonNull(config);
         try {
             Rule ruleEntity = _getRule(null, rule);
             new RuleConfigMapperUpdater(_getRuleConfig(ruleEntity))
                 .update(config)
-                .persistUpdate(entityManager, ruleEntity)
+                .persistUpdate(em(), ruleEntity)
                 .toRuleConfigurationDto();
 
         } catch (PersistenceException ex) {
@@ -948,10 +1063,11 @@ public class JPARegistryStorage implements RegistryStorage {
     @Override
     @Transactional
     public void deleteGlobalRule(RuleType rule) throws RuleNotFoundException, RegistryStorageException {
+        replica.written();
         requireNonNull(rule);
         try {
             Rule ruleEntity = _getRule(null, rule);
-            entityManager.remove(ruleEntity);
+            em().remove(ruleEntity);
         } catch (PersistenceException ex) {
             throw new RegistryStorageException(ex);
         }
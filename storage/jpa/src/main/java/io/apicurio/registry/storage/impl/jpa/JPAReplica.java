@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalPropertiesReader;
+import io.apicurio.registry.storage.NotFoundException;
+import io.apicurio.registry.storage.RegistryStorageException;
+import io.apicurio.registry.utils.RegistryProperties;
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Routes the storage reads to an (optional) read-only replica of the database,
+ * configured with the {@code registry.jpa.replica.datasource.} (Agroal) properties, e.g.
+ * {@code jdbcUrl}, {@code principal}, {@code credential} and {@code maxSize}.
+ * <p>
+ * The replica is asynchronously updated, so to read own writes:
+ * <ul>
+ *     <li>all reads go to the primary for {@code registry.jpa.replica.staleness-window-ms}
+ *     after a write (commit) on this node,</li>
+ *     <li>reads not finding e.g. an artifact on the replica are retried on the primary
+ *     for {@code registry.jpa.replica.max-lag-ms} after a write on this node
+ *     (writes on the other nodes are found once replicated).</li>
+ * </ul>
+ * Reads failing on the replica itself are retried on the primary, other failures
+ * (e.g. an invalid artifact state) are not.
+ */
+@ApplicationScoped
+public class JPAReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(JPAReplica.class);
+
+    @Inject
+    @RegistryProperties("registry.jpa.replica.datasource.")
+    Properties properties;
+
+    @ConfigProperty(name = "registry.jpa.replica.staleness-window-ms", defaultValue = "5000")
+    long stalenessWindow;
+
+    @ConfigProperty(name = "registry.jpa.replica.max-lag-ms", defaultValue = "10000")
+    long maxLag;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    private final ThreadLocal<EntityManager> current = new ThreadLocal<>();
+
+    private AgroalDataSource dataSource;
+
+    private volatile long lastWrite;
+
+    void onStart(@Observes StartupEvent event) {
+        if (properties.getProperty(AgroalPropertiesReader.JDBC_URL) == null) {
+            return;
+        }
+        Map<String, String> config = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> config.put(key, properties.getProperty(key)));
+        try {
+            dataSource = AgroalDataSource.from(new AgroalPropertiesReader().readProperties(config));
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        log.info("JPA storage reads are routed to the replica: {}", properties.getProperty(AgroalPropertiesReader.JDBC_URL));
+    }
+
+    @PreDestroy
+    void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * @return the replica entity manager, if called by a routed read, the primary one otherwise
+     */
+    public EntityManager entityManager(EntityManager primary) {
+        EntityManager entityManager = current.get();
+        return entityManager != null ? entityManager : primary;
+    }
+
+    /**
+     * Record a write, once committed (if in a transaction), any following reads on this node
+     * go to the primary, for the staleness window.
+     */
+    public void written() {
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            lastWrite = System.currentTimeMillis();
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    lastWrite = System.currentTimeMillis();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run the read on the replica, if configured, falling back to the primary.
+     */
+    public <T> T read(Supplier<T> reader) {
+        if (dataSource == null || current.get() != null || System.currentTimeMillis() - lastWrite < stalenessWindow) {
+            return reader.get();
+        }
+        try (Connection connection = dataSource.getConnection();
+             Session session = entityManagerFactory.unwrap(SessionFactory.class)
+                                                   .withOptions()
+                                                   .connection(connection)
+                                                   .autoJoinTransactions(false)
+                                                   .openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            current.set(session);
+            try {
+                return reader.get();
+            } finally {
+                current.remove();
+            }
+        } catch (NotFoundException e) {
+            if (System.currentTimeMillis() - lastWrite >= maxLag) {
+                throw e;
+            }
+            // possibly not replicated yet
+            log.debug("Not found on the replica, reading from the primary: {}", e.toString());
+        } catch (RegistryStorageException | PersistenceException | SQLException e) {
+            log.warn("Replica read failed, reading from the primary", e);
+        }
+        return reader.get();
+    }
+}
@@ -24,6 +24,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -34,12 +35,20 @@ import javax.persistence.Lob;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
-
+/**
+ * A single artifact version, mapping its global id to the artifact id, version and content.
+ * Never updated once written, so it can be cached, see {@code JPACache}.
+ */
 @Entity
+@Cacheable
 @Table(
         name = "artifacts",
         uniqueConstraints = @UniqueConstraint(columnNames = {"artifact_id", "version"}),
-        indexes = @Index(columnList = "artifact_id, version", unique = true)
+        indexes = {
+                @Index(columnList = "artifact_id, version", unique = true),
+                @Index(columnList = "artifact_id, canonical_hash"),
+                @Index(columnList = "content_hash")
+        }
 )
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,6 +58,8 @@ import javax.persistence.UniqueConstraint;
 @ToString
 public class Artifact {
 
+    public static final byte[] NO_CONTENT = new byte[0];
+
     @Id
     @GeneratedValue
     @Column(name = "global_id", updatable = false, nullable = false)
@@ -61,8 +72,18 @@ public class Artifact {
     @Column(name = "version", updatable = false, nullable = false)
     private Long version;
 
+    // null for versions stored before the column was introduced
+    @Column(name = "canonical_hash", updatable = false, length = 64)
+    private String canonicalHash;
+
+    // references the (shared) Content row, null for versions stored before the content table was introduced
+    @Column(name = "content_hash", updatable = false, length = 64)
+    private String contentHash;
+
+    // content of the versions stored before the content table was introduced, empty once moved there
+    // (the column stays non-null, as schema updates do not relax constraints of existing tables)
     @Column(name = "value", updatable = false, nullable = false)
     @Lob
-    @Basic(fetch = FetchType.EAGER)
-    private byte[] content;
+    @Basic(fetch = FetchType.LAZY)
+    private byte[] legacyContent;
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa.entity;
+
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Typed meta-data of a single artifact version, one row per {@link Artifact} row (same global id).
+ * Replaces the key/value {@link MetaData} rows.
+ */
+@Entity
+@Table(
+        name = "artifact_version",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"artifact_id", "version"}),
+        indexes = {
+                @Index(columnList = "artifact_id, version", unique = true),
+                @Index(columnList = "artifact_id, state"),
+                @Index(columnList = "name"),
+                @Index(columnList = "created_on")
+        }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class ArtifactVersion {
+
+    @Id
+    @Column(name = "global_id", updatable = false, nullable = false)
+    @EqualsAndHashCode.Include
+    private Long globalId;
+
+    @Column(name = "artifact_id", updatable = false, nullable = false)
+    private String artifactId;
+
+    @Column(name = "version", updatable = false, nullable = false)
+    private Long version;
+
+    @Column(name = "type", updatable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    private ArtifactType type;
+
+    @Column(name = "state", nullable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    @Setter
+    private ArtifactState state;
+
+    @Column(name = "name", length = 512)
+    @Setter
+    private String name;
+
+    @Column(name = "description", length = 1024)
+    @Setter
+    private String description;
+
+    @Column(name = "created_on")
+    private Long createdOn;
+
+    @Column(name = "modified_on")
+    @Setter
+    private Long modifiedOn;
+}
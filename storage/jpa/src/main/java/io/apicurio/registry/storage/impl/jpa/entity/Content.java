@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+/**
+ * Immutable artifact content, keyed by the SHA-256 hash of its bytes,
+ * so that versions with byte-identical content share a single row.
+ * Never updated once written, so it can be cached, see {@code JPACache}.
+ */
+@Entity
+@Cacheable
+@Table(name = "content")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "content")
+public class Content {
+
+    @Id
+    @Column(name = "content_hash", updatable = false, nullable = false, length = 64)
+    @EqualsAndHashCode.Include
+    private String contentHash;
+
+    @Column(name = "content", updatable = false, nullable = false)
+    @Lob
+    private byte[] content;
+}
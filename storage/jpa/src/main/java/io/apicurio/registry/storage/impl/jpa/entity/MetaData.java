@@ -32,6 +32,10 @@ import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+/**
+ * Legacy key/value meta-data, replaced by {@link ArtifactVersion}.
+ * Only read when migrating the existing rows, see {@link io.apicurio.registry.storage.impl.jpa.JPAMetaDataMigration}.
+ */
 @Entity
 @Table(
         name = "meta",
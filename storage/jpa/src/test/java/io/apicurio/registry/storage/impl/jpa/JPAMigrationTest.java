@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.apicurio.registry.AbstractResourceTestBase;
+import io.apicurio.registry.content.ContentHandle;
+import io.apicurio.registry.storage.ArtifactMetaDataDto;
+import io.apicurio.registry.storage.RegistryStorage;
+import io.apicurio.registry.storage.impl.jpa.entity.Artifact;
+import io.apicurio.registry.storage.impl.jpa.entity.MetaData;
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.types.Current;
+import io.apicurio.registry.util.ContentHashUtil;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.IntSupplier;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+@QuarkusTest
+public class JPAMigrationTest extends AbstractResourceTestBase {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    UserTransaction transaction;
+
+    @Inject
+    JPAMetaDataMigration migration;
+
+    @Inject
+    JPAContentMigration contentMigration;
+
+    @Inject
+    @Current
+    RegistryStorage storage;
+
+    private void storeLegacy(String artifactId, long version, String content, ArtifactState state) {
+        entityManager.persist(Artifact.builder()
+                                      .artifactId(artifactId)
+                                      .version(version)
+                                      .legacyContent(content.getBytes(StandardCharsets.UTF_8))
+                                      .build());
+        entityManager.persist(MetaData.builder().artifactId(artifactId).version(version).key("type").value("JSON").build());
+        entityManager.persist(MetaData.builder().artifactId(artifactId).version(version).key("state").value(state.name()).build());
+        entityManager.persist(MetaData.builder().artifactId(artifactId).version(version).key("name").value("name" + version).build());
+    }
+
+    private long countContent(String content) {
+        return entityManager.createQuery(
+            "SELECT count(c) FROM Content c " +
+            "WHERE c.contentHash = :content_hash", Long.class)
+                            .setParameter("content_hash", ContentHashUtil.sha256Hash(content.getBytes(StandardCharsets.UTF_8)))
+                            .getSingleResult();
+    }
+
+    private long countLegacy() {
+        return entityManager.createQuery(
+            "SELECT count(a) FROM Artifact a " +
+            "WHERE a.contentHash IS NULL " +
+            "OR NOT EXISTS (SELECT v.globalId FROM ArtifactVersion v WHERE v.globalId = a.globalId)", Long.class)
+                            .getSingleResult();
+    }
+
+    @Test
+    public void testMigration() throws Exception {
+        String content = "{\"legacy\":1}";
+        transaction.begin();
+        storeLegacy("testMigration", 1, content, ArtifactState.ENABLED);
+        storeLegacy("testMigration", 2, content, ArtifactState.DISABLED);
+        entityManager.persist(MetaData.builder().artifactId("testMigration").version(7L).key("name").value("orphan").build());
+        transaction.commit();
+
+        Assertions.assertEquals(2, JPADatabaseManager.migrateAll(migration::migrate, migration::remaining));
+        Assertions.assertEquals(1, migration.cleanup());
+
+        // not migrated content is still served
+        Assertions.assertEquals(content, storage.getArtifactVersion("testMigration", 1).getContent().content());
+        Assertions.assertEquals(2, JPADatabaseManager.migrateAll(contentMigration::migrate, contentMigration::remaining));
+        Assertions.assertEquals(0L, countLegacy());
+        Assertions.assertEquals(1L, countContent(content));
+        Assertions.assertEquals(content, storage.getArtifactVersion("testMigration", 1).getContent().content());
+
+        ArtifactMetaDataDto metaData = storage.getArtifactMetaData("testMigration");
+        Assertions.assertEquals(1, metaData.getVersion());
+        Assertions.assertEquals("name1", metaData.getName());
+        Assertions.assertEquals(ArtifactType.JSON, metaData.getType());
+        Assertions.assertEquals(ArtifactState.DISABLED, storage.getArtifactVersionMetaData("testMigration", 2).getState());
+        Assertions.assertEquals(2, storage.getArtifactMetaData("testMigration", ContentHandle.create(content)).getVersion());
+
+        storage.deleteArtifact("testMigration");
+        Assertions.assertEquals(0L, countContent(content));
+    }
+
+    @Test
+    public void testMigrationConcurrent() throws Exception {
+        int versions = 1200;
+        transaction.begin();
+        for (int version = 1; version <= versions; version++) {
+            storeLegacy("testMigrationConcurrent", version, "{\"legacy\":" + version % 3 + "}", ArtifactState.ENABLED);
+        }
+        transaction.commit();
+
+        // as if started on two nodes at once
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        IntSupplier migrateAll = () -> {
+            try {
+                barrier.await();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            JPADatabaseManager.migrateAll(migration::migrate, migration::remaining);
+            return JPADatabaseManager.migrateAll(contentMigration::migrate, contentMigration::remaining);
+        };
+        CompletableFuture<Integer> other = CompletableFuture.supplyAsync(migrateAll::getAsInt);
+        migrateAll.getAsInt();
+        other.get();
+
+        Assertions.assertEquals(0L, countLegacy());
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(1L, countContent("{\"legacy\":" + i + "}"));
+        }
+        Assertions.assertEquals(versions, storage.getArtifactVersions("testMigrationConcurrent").size());
+        Assertions.assertEquals("{\"legacy\":1}", storage.getArtifactVersion("testMigrationConcurrent", 1).getContent().content());
+
+        storage.deleteArtifact("testMigrationConcurrent");
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0L, countContent("{\"legacy\":" + i + "}"));
+        }
+    }
+}
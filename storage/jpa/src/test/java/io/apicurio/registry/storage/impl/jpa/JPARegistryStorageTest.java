@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.storage.impl.jpa;
+
+import io.apicurio.registry.AbstractResourceTestBase;
+import io.apicurio.registry.content.ContentHandle;
+import io.apicurio.registry.storage.ArtifactMetaDataDto;
+import io.apicurio.registry.storage.ArtifactNotFoundException;
+import io.apicurio.registry.storage.InvalidArtifactStateException;
+import io.apicurio.registry.storage.RegistryStorage;
+import io.apicurio.registry.storage.RegistryStorageException;
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.types.Current;
+import io.apicurio.registry.util.ContentHashUtil;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+@QuarkusTest
+public class JPARegistryStorageTest extends AbstractResourceTestBase {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    UserTransaction transaction;
+
+    @Inject
+    @Current
+    RegistryStorage storage;
+
+    @Inject
+    JPAReplica replica;
+
+    private long countContent(String content) {
+        return entityManager.createQuery(
+            "SELECT count(c) FROM Content c " +
+            "WHERE c.contentHash = :content_hash", Long.class)
+                            .setParameter("content_hash", ContentHashUtil.sha256Hash(content.getBytes(StandardCharsets.UTF_8)))
+                            .getSingleResult();
+    }
+
+    private ArtifactMetaDataDto create(String artifactId, String content) throws Exception {
+        return storage.createArtifact(artifactId, ArtifactType.JSON, ContentHandle.create(content))
+                      .toCompletableFuture()
+                      .get();
+    }
+
+    @Test
+    public void testContentShared() throws Exception {
+        String shared = "{\"shared\":1}";
+        String other = "{\"shared\":2}";
+        create("testContentShared-1", shared);
+        create("testContentShared-2", shared);
+        storage.updateArtifact("testContentShared-2", ArtifactType.JSON, ContentHandle.create(other))
+               .toCompletableFuture()
+               .get();
+        Assertions.assertEquals(1L, countContent(shared));
+        Assertions.assertEquals(1L, countContent(other));
+
+        storage.deleteArtifactVersion("testContentShared-2", 1);
+        Assertions.assertEquals(1L, countContent(shared));
+        Assertions.assertEquals(shared, storage.getArtifact("testContentShared-1").getContent().content());
+
+        storage.deleteArtifact("testContentShared-1");
+        Assertions.assertEquals(0L, countContent(shared));
+        Assertions.assertEquals(1L, countContent(other));
+
+        storage.deleteArtifact("testContentShared-2");
+        Assertions.assertEquals(0L, countContent(other));
+    }
+
+    @Test
+    public void testContentStoredConcurrently() throws Exception {
+        String content = "{\"concurrent\":1}";
+        int threads = 4;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ArtifactMetaDataDto>> created = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String artifactId = "testContentStoredConcurrently-" + i;
+                created.add(executor.submit(() -> {
+                    barrier.await();
+                    return create(artifactId, content);
+                }));
+            }
+            for (Future<ArtifactMetaDataDto> future : created) {
+                Assertions.assertNotNull(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(1L, countContent(content));
+
+        // deleted concurrently with a create of the same content
+        CompletableFuture<?> deleted = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < threads; i++) {
+                storage.deleteArtifact("testContentStoredConcurrently-" + i);
+            }
+        });
+        create("testContentStoredConcurrently-last", content);
+        deleted.get();
+        Assertions.assertEquals(1L, countContent(content));
+        Assertions.assertEquals(content, storage.getArtifact("testContentStoredConcurrently-last").getContent().content());
+
+        storage.deleteArtifact("testContentStoredConcurrently-last");
+        Assertions.assertEquals(0L, countContent(content));
+    }
+
+    @Test
+    public void testContentMissing() throws Exception {
+        String content = "{\"missing\":1}";
+        create("testContentMissing", content);
+
+        transaction.begin();
+        entityManager.createQuery("DELETE FROM Content c WHERE c.contentHash = :content_hash")
+                     .setParameter("content_hash", ContentHashUtil.sha256Hash(content.getBytes(StandardCharsets.UTF_8)))
+                     .executeUpdate();
+        transaction.commit();
+
+        Assertions.assertThrows(RegistryStorageException.class, () -> storage.getArtifact("testContentMissing"));
+        storage.deleteArtifact("testContentMissing");
+    }
+
+    @Test
+    public void testReplicaRead() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        // not a replica failure, so not retried on the primary
+        Assertions.assertThrows(InvalidArtifactStateException.class, () -> replica.read(() -> {
+            reads.incrementAndGet();
+            throw new InvalidArtifactStateException("testReplicaRead", 1L, ArtifactState.DISABLED);
+        }));
+        Assertions.assertEquals(1, reads.get());
+
+        // possibly not replicated yet, after the (committed) write
+        create("testReplicaRead", "{\"replica\":1}");
+        reads.set(0);
+        Assertions.assertThrows(ArtifactNotFoundException.class, () -> replica.read(() -> {
+            reads.incrementAndGet();
+            throw new ArtifactNotFoundException("testReplicaRead");
+        }));
+        Assertions.assertEquals(2, reads.get());
+
+        storage.deleteArtifact("testReplicaRead");
+    }
+}
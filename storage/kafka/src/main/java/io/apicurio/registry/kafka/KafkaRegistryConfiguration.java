@@ -17,8 +17,6 @@
 package io.apicurio.registry.kafka;
 
 import io.apicurio.registry.common.proto.Cmmn;
-import io.apicurio.registry.kafka.snapshot.StorageSnapshot;
-import io.apicurio.registry.kafka.snapshot.StorageSnapshotSerde;
 import io.apicurio.registry.kafka.util.CloseableSupplier;
 import io.apicurio.registry.storage.proto.Str;
 import io.apicurio.registry.utils.RegistryProperties;
@@ -68,17 +66,17 @@ public class KafkaRegistryConfiguration {
 
     @Produces
     @ApplicationScoped
-    public ProducerActions<Long, StorageSnapshot> snapshotProducer(
+    public ProducerActions<Long, Str.SnapshotChunk> snapshotProducer(
         @RegistryProperties("registry.kafka.snapshot-producer.") Properties properties
     ) {
         return new AsyncProducer<>(
             properties,
             Serdes.Long().serializer(),
-            new StorageSnapshotSerde()
+            ProtoSerde.parsedWith(Str.SnapshotChunk.parser())
         );
     }
 
-    public void stopSnapshotProducer(@Disposes ProducerActions<Long, StorageSnapshot> producer) throws Exception {
+    public void stopSnapshotProducer(@Disposes ProducerActions<Long, Str.SnapshotChunk> producer) throws Exception {
         producer.close();
     }
 
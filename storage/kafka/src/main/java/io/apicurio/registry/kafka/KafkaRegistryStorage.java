@@ -18,7 +18,8 @@ package io.apicurio.registry.kafka;
 
 import io.apicurio.registry.common.proto.Cmmn;
 import io.apicurio.registry.content.ContentHandle;
-import io.apicurio.registry.kafka.snapshot.StorageSnapshot;
+import io.apicurio.registry.kafka.snapshot.StorageSnapshotConverter;
+import io.apicurio.registry.kafka.snapshot.StorageSnapshotWriter;
 import io.apicurio.registry.metrics.PersistenceExceptionLivenessApply;
 import io.apicurio.registry.metrics.PersistenceTimeoutReadinessApply;
 import io.apicurio.registry.storage.ArtifactAlreadyExistsException;
@@ -30,6 +31,8 @@ import io.apicurio.registry.storage.RuleAlreadyExistsException;
 import io.apicurio.registry.storage.RuleConfigurationDto;
 import io.apicurio.registry.storage.RuleNotFoundException;
 import io.apicurio.registry.storage.VersionNotFoundException;
+import io.apicurio.registry.storage.impl.ArtifactVersionIndex;
+import io.apicurio.registry.storage.impl.ArtifactVersionRecord;
 import io.apicurio.registry.storage.impl.SimpleMapRegistryStorage;
 import io.apicurio.registry.storage.proto.Str;
 import io.apicurio.registry.types.ArtifactState;
@@ -59,8 +62,10 @@ import static io.apicurio.registry.metrics.MetricIDs.STORAGE_OPERATION_TIME_DESC
 import static io.apicurio.registry.utils.ConcurrentUtil.get;
 import static org.eclipse.microprofile.metrics.MetricUnits.MILLISECONDS;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -97,6 +102,12 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
     @ConfigProperty(name = "registry.kafka.snapshot.topic", defaultValue = "snapshot-topic")
     String snapshotTopic;
 
+    @ConfigProperty(name = "registry.kafka.snapshot.chunk.bytes", defaultValue = "524288") // 512kB
+    int snapshotChunkBytes; // should be well below the snapshot topic's max.message.bytes
+
+    @ConfigProperty(name = "registry.kafka.snapshot.full.every", defaultValue = "10")
+    int snapshotFullEvery; // every n-th automatic snapshot is a full one, others are deltas; forced snapshots are always full
+
     @ConfigProperty(name = "registry.kafka.schedule.period.minutes", defaultValue = "1")
     long schedulePeriod; // schedule check period in minutes
 
@@ -107,7 +118,7 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
     ProducerActions<Cmmn.UUID, Str.StorageValue> storageProducer;
 
     @Inject
-    ProducerActions<Long, StorageSnapshot> snapshotProducer;
+    ProducerActions<Long, Str.SnapshotChunk> snapshotProducer;
 
     @Inject
     Supplier<Boolean> livenessCheck;
@@ -120,6 +131,16 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
     private ScheduledExecutorService executor;
     private volatile long lastSnapshotTime;
 
+    // changes since the last snapshot, only used by the consumer thread;
+    // tracked on all nodes, as any of them can write the next snapshot
+    private long lastSnapshotOffset = -1;
+    private int deltaSnapshots;
+    private final Set<String> changedArtifacts = new HashSet<>();
+    private final Set<String> changedRules = new HashSet<>();
+    private boolean globalRulesChanged;
+    // the last snapshot, if written by this node; a delta is only based on it once it's successfully written
+    private CompletableFuture<RecordMetadata> lastSnapshot;
+
     @Override
     protected long nextGlobalId() {
         return offset;
@@ -142,11 +163,34 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
     }
 
     @Override
-    public void loadSnapshot(StorageSnapshot snapshot) {
-        storage.putAll(snapshot.getStorage());
-        global.putAll(snapshot.getGlobal());
-        artifactRules.putAll(snapshot.getArtifactRules());
-        globalRules.putAll(snapshot.getGlobalRules());
+    public void loadSnapshotChunk(Str.SnapshotChunk chunk) {
+        for (String artifactId : chunk.getResetsList()) {
+            ArtifactVersionIndex v2r = storage.remove(artifactId);
+            if (v2r != null) {
+                v2r.values().forEach(r -> global.remove(r.getGlobalId()));
+            }
+        }
+        for (Str.SnapshotRulesValue rules : chunk.getRulesList()) {
+            if (rules.getArtifactId().isEmpty()) {
+                globalRules.clear();
+                globalRules.putAll(rules.getRulesMap());
+            } else {
+                artifactRules.remove(rules.getArtifactId());
+                if (rules.getRulesCount() > 0) {
+                    artifactRules.compute(rules.getArtifactId(), rulesLookupFn()).putAll(rules.getRulesMap());
+                }
+            }
+        }
+        for (Str.SnapshotVersionValue value : chunk.getVersionsList()) {
+            ArtifactVersionRecord record = StorageSnapshotConverter.toRecord(value);
+            storage.compute(record.getArtifactId(), lookupFn()).putIfAbsent(record);
+            global.put(record.getGlobalId(), record);
+        }
+        if (chunk.getLast()) {
+            lastSnapshotOffset = chunk.getOffset();
+            deltaSnapshots = chunk.getDelta() ? deltaSnapshots + 1 : 0;
+            rebuildSearchIndex();
+        }
     }
 
     @Override
@@ -234,10 +278,16 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
                     break;
                 }
                 case METADATA: {
+                    changedArtifacts.add(artifactId);
                     consumeMetaData(tf, rv, type, artifactId, version);
                     break;
                 }
                 case RULE: {
+                    if (artifactId != null) {
+                        changedRules.add(artifactId);
+                    } else {
+                        globalRulesChanged = true;
+                    }
                     consumeRule(tf, rv, type, artifactId);
                     break;
                 }
@@ -253,6 +303,7 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
                     break;
                 }
                 case STATE: {
+                    changedArtifacts.add(artifactId);
                     Str.ArtifactState state = rv.getState();
                     consumeState(tf, artifactId, version, state);
                     break;
@@ -262,19 +313,31 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
                 }
             }
 
-            // only handle things on producer, so multiple nodes don't write same snapshots
-            if (isProducer && (forcedSnapshot || (offset > 0 && (offset % snapshotRequests) == 0))) {
-                CompletableFuture<RecordMetadata> rcf = makeSnapshot(timestamp);
-                if (forcedSnapshot) {
-                    TimedFuture<Object> tmpTF = tf;
-                    rcf.whenComplete((r, t) -> {
-                        if (t != null) {
-                            tmpTF.completeExceptionally(t);
-                        } else {
-                            tmpTF.complete(r);
-                        }
-                    });
+            if (forcedSnapshot || (offset > 0 && (offset % snapshotRequests) == 0)) {
+                boolean full = forcedSnapshot || lastSnapshotOffset < 0 || deltaSnapshots + 1 >= snapshotFullEvery
+                               || !isWritten(lastSnapshot);
+                lastSnapshot = null;
+                // only handle things on producer, so multiple nodes don't write same snapshots
+                if (isProducer) {
+                    CompletableFuture<RecordMetadata> rcf = makeSnapshot(timestamp, full);
+                    lastSnapshot = rcf;
+                    if (forcedSnapshot) {
+                        TimedFuture<Object> tmpTF = tf;
+                        rcf.whenComplete((r, t) -> {
+                            if (t != null) {
+                                tmpTF.completeExceptionally(t);
+                            } else {
+                                tmpTF.complete(r);
+                            }
+                        });
+                    }
                 }
+                // all nodes start tracking changes from here on (if this snapshot fails, the next one is full)
+                lastSnapshotOffset = offset;
+                deltaSnapshots = full ? 0 : deltaSnapshots + 1;
+                changedArtifacts.clear();
+                changedRules.clear();
+                globalRulesChanged = false;
             }
 
         } catch (RegistryException e) {
@@ -283,16 +346,30 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
         // all other non-project / non-programmatic exceptions are unexpected, retry?
     }
 
-    private CompletableFuture<RecordMetadata> makeSnapshot(long timestamp) {
-        return snapshotProducer.apply(new ProducerRecord<>(
-            snapshotTopic,
-            timestamp,
-            new StorageSnapshot(storage, global, artifactRules, globalRules, offset)
-        )).whenComplete((recordMeta, exception) -> {
+    // a snapshot written by another node is assumed to be written, a broken chain falls back to the last full snapshot on load
+    private static boolean isWritten(CompletableFuture<RecordMetadata> snapshot) {
+        return snapshot == null || (snapshot.isDone() && !snapshot.isCompletedExceptionally());
+    }
+
+    private CompletableFuture<RecordMetadata> makeSnapshot(long timestamp, boolean full) {
+        // the maps are only changed by this (consumer) thread, so they can be written out as they are;
+        // all chunks go to the same partition, keyed by the snapshot timestamp
+        StorageSnapshotWriter writer = new StorageSnapshotWriter(
+            offset,
+            snapshotChunkBytes,
+            chunk -> snapshotProducer.apply(new ProducerRecord<>(snapshotTopic, 0, timestamp, chunk))
+        );
+        CompletableFuture<RecordMetadata> cf;
+        if (full) {
+            cf = writer.write(storage, artifactRules, globalRules);
+        } else {
+            cf = writer.writeDelta(lastSnapshotOffset, storage, artifactRules, globalRules, changedArtifacts, changedRules, globalRulesChanged);
+        }
+        return cf.whenComplete((recordMeta, exception) -> {
             if (exception != null) {
                 log.warn("Exception dumping automatic snapshot: ", exception);
             } else {
-                log.info("Dumped automatic snapshot to {} ({} bytes)", recordMeta, recordMeta.serializedValueSize());
+                log.info("Dumped automatic {} snapshot to {} ({} chunks, {} bytes)", full ? "full" : "delta", recordMeta, writer.getChunks(), writer.getBytes());
             }
         });
     }
@@ -351,13 +428,16 @@ public class KafkaRegistryStorage extends SimpleMapRegistryStorage implements Ka
         Str.ArtifactValue artifact = rv.getArtifact();
         if (type == Str.ActionType.CREATE || type == Str.ActionType.UPDATE) {
             byte[] content = artifact.getContent().toByteArray();
-            cf.complete(createOrUpdateArtifact(
+            ArtifactMetaDataDto amdd = createOrUpdateArtifact(
                 artifactId,
                 ArtifactType.values()[artifact.getArtifactType()],
                 ContentHandle.create(content),
                 Str.ActionType.CREATE == type,
-                offset));
+                offset);
+            changedArtifacts.add(amdd.getId()); // the id might have been generated
+            cf.complete(amdd);
         } else if (type == Str.ActionType.DELETE) {
+            changedArtifacts.add(artifactId);
             if (version >= 0) {
                 super.deleteArtifactVersion(artifactId, version);
                 cf.complete(Void.class); // just set something
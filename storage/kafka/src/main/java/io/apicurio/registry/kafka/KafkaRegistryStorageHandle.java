@@ -17,7 +17,6 @@
 package io.apicurio.registry.kafka;
 
 import io.apicurio.registry.common.proto.Cmmn;
-import io.apicurio.registry.kafka.snapshot.StorageSnapshot;
 import io.apicurio.registry.storage.proto.Str;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
@@ -28,7 +27,10 @@ public interface KafkaRegistryStorageHandle {
     String registryTopic();
     String snapshotTopic();
 
-    void loadSnapshot(StorageSnapshot snapshot);
+    /**
+     * Loads a single snapshot chunk; chunks are loaded in sequence, ending with the last chunk.
+     */
+    void loadSnapshotChunk(Str.SnapshotChunk chunk);
 
     void consumeStorageValue(ConsumerRecord<Cmmn.UUID, Str.StorageValue> record);
 
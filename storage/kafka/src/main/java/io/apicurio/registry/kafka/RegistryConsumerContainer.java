@@ -18,11 +18,10 @@ package io.apicurio.registry.kafka;
 
 import io.apicurio.registry.common.proto.Cmmn;
 import io.apicurio.registry.storage.proto.Str;
-import io.apicurio.registry.kafka.snapshot.StorageSnapshot;
-import io.apicurio.registry.kafka.snapshot.StorageSnapshotSerde;
 import io.apicurio.registry.utils.kafka.ConsumerActions;
 import io.apicurio.registry.utils.kafka.ConsumerContainer;
 import io.apicurio.registry.utils.kafka.Oneof2;
+import io.apicurio.registry.utils.kafka.ProtoSerde;
 import io.apicurio.registry.utils.kafka.Seek;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -31,9 +30,11 @@ import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serdes;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Optional;
+import java.util.List;
 import java.util.Properties;
+import java.util.function.Predicate;
 
 /**
  * @author Ales Justin
@@ -62,11 +63,10 @@ public class RegistryConsumerContainer extends ConsumerContainer<Cmmn.UUID, Str.
         super.start();
 
         // read from Snapshot
-        StorageSnapshot snapshot = loadSnapshot();
+        long snapshotOffset = loadSnapshot();
         Seek.Offset offset;
-        if (snapshot != null) {
-            handle.loadSnapshot(snapshot);
-            offset = (snapshot.getOffset() > 0) ? Seek.TO_ABSOLUTE.offset(snapshot.getOffset() + 1) : Seek.FROM_BEGINNING.offset(0);
+        if (snapshotOffset > 0) {
+            offset = Seek.TO_ABSOLUTE.offset(snapshotOffset + 1);
         } else {
             offset = Seek.FROM_BEGINNING.offset(0);
         }
@@ -85,31 +85,134 @@ public class RegistryConsumerContainer extends ConsumerContainer<Cmmn.UUID, Str.
 
     // handle / load snapshot
 
-    private StorageSnapshot loadSnapshot() {
+    /**
+     * Loads the last complete snapshot, chunk by chunk.
+     * A delta snapshot is loaded on top of its base snapshot(s), down to the last full snapshot.
+     * If any of the bases is missing (e.g. its write failed, or it was already removed by the topic's retention),
+     * only the last (still available) full snapshot is loaded, as the rest is then re-applied from the storage topic anyway.
+     *
+     * @return storage offset the (last loaded) snapshot was taken at, or -1 if there is no snapshot
+     */
+    private long loadSnapshot() {
         TopicPartition snapshotsTp = new TopicPartition(handle.snapshotTopic(), 0);
-        try (org.apache.kafka.clients.consumer.Consumer<Long, StorageSnapshot> consumer = new KafkaConsumer<>(
+        try (org.apache.kafka.clients.consumer.Consumer<Long, Str.SnapshotChunk> consumer = new KafkaConsumer<>(
             snapshotProperties,
             Serdes.Long().deserializer(),
-            new StorageSnapshotSerde())
+            ProtoSerde.parsedWith(Str.SnapshotChunk.parser()))
         ) {
             consumer.assign(Collections.singleton(snapshotsTp));
-            long offset = consumer.endOffsets(Collections.singleton(snapshotsTp)).get(snapshotsTp);
-            if (offset == 0L) {
-                // no snapshots written yet -> return null to signal
-                return null;
-            } else {
-                // seek to 1 before last snapshot
-                consumer.seek(snapshotsTp, offset - 1);
-                // read the snapshot
-                Optional<? extends ConsumerRecord<?, StorageSnapshot>> rec =
-                    consumer.poll(Duration.ofMillis(SNAPSHOTS_POLL_TIMEOUT))
-                            .records(snapshotsTp)
-                            .stream()
-                            .reduce((rec1, rec2) -> rec1.offset() > rec2.offset() ? rec1 : rec2);
-                return rec.orElseThrow(() -> new IllegalStateException("Couldn't read last snapshot in " + SNAPSHOTS_POLL_TIMEOUT + " ms"))
-                          .value();
+            long startOffset = consumer.beginningOffsets(Collections.singleton(snapshotsTp)).get(snapshotsTp);
+            long endOffset = consumer.endOffsets(Collections.singleton(snapshotsTp)).get(snapshotsTp);
+            // all chunks of the snapshot are still in the topic
+            Predicate<Str.SnapshotChunk> available = c -> c.getSequence() == 0 || c.getFirstOffset() >= startOffset;
+
+            // last chunks of the snapshots to load, newest first
+            List<ConsumerRecord<Long, Str.SnapshotChunk>> chain = new ArrayList<>();
+            ConsumerRecord<Long, Str.SnapshotChunk> last = findLastChunk(consumer, snapshotsTp, startOffset, endOffset, available);
+            while (last != null) {
+                chain.add(last);
+                Str.SnapshotChunk chunk = last.value();
+                if (!chunk.getDelta()) {
+                    break;
+                }
+                long before = chunk.getSequence() > 0 ? chunk.getFirstOffset() : last.offset();
+                last = findLastChunk(consumer, snapshotsTp, startOffset, before, available.and(c -> c.getOffset() == chunk.getBaseOffset()));
+            }
+            if (chain.isEmpty()) {
+                // no (complete) snapshots written yet -> return -1 to signal
+                return -1;
+            }
+            if (last == null) {
+                // broken chain
+                last = findLastChunk(consumer, snapshotsTp, startOffset, endOffset, available.and(c -> !c.getDelta()));
+                if (last == null) {
+                    return -1;
+                }
+                chain = Collections.singletonList(last);
+            }
+
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                loadSnapshot(consumer, snapshotsTp, chain.get(i));
+            }
+            return chain.get(0).value().getOffset();
+        }
+    }
+
+    private void loadSnapshot(
+        org.apache.kafka.clients.consumer.Consumer<Long, Str.SnapshotChunk> consumer,
+        TopicPartition snapshotsTp,
+        ConsumerRecord<Long, Str.SnapshotChunk> last
+    ) {
+        Str.SnapshotChunk lastChunk = last.value();
+        int expected = 0;
+        if (lastChunk.getSequence() > 0) {
+            // read the preceding chunks of the same snapshot, chunks of other snapshots may be interleaved
+            consumer.seek(snapshotsTp, lastChunk.getFirstOffset());
+            long position = lastChunk.getFirstOffset();
+            while (position < last.offset()) {
+                for (ConsumerRecord<Long, Str.SnapshotChunk> rec : poll(consumer, snapshotsTp)) {
+                    position = rec.offset() + 1;
+                    if (rec.offset() >= last.offset()) {
+                        break;
+                    }
+                    if (last.key().equals(rec.key()) && rec.value().getSequence() == expected) {
+                        handle.loadSnapshotChunk(rec.value());
+                        expected++;
+                    }
+                }
             }
         }
+        if (expected != lastChunk.getSequence()) {
+            throw new IllegalStateException(String.format("Incomplete snapshot %s, only found %s of %s chunks",
+                                                          last.key(), expected, lastChunk.getSequence() + 1));
+        }
+        handle.loadSnapshotChunk(lastChunk);
+    }
+
+    // looks back (before the given offset, down to the topic's start offset) in growing windows,
+    // for the last "last" chunk matching the filter; typically the last record is the last chunk of the last snapshot
+    private ConsumerRecord<Long, Str.SnapshotChunk> findLastChunk(
+        org.apache.kafka.clients.consumer.Consumer<Long, Str.SnapshotChunk> consumer,
+        TopicPartition snapshotsTp,
+        long startOffset,
+        long before,
+        Predicate<Str.SnapshotChunk> filter
+    ) {
+        long to = before;
+        long window = 1;
+        while (to > startOffset) {
+            long from = Math.max(startOffset, to - window);
+            consumer.seek(snapshotsTp, from);
+            ConsumerRecord<Long, Str.SnapshotChunk> found = null;
+            long position = from;
+            while (position < to) {
+                for (ConsumerRecord<Long, Str.SnapshotChunk> rec : poll(consumer, snapshotsTp)) {
+                    position = rec.offset() + 1;
+                    if (rec.offset() >= to) {
+                        break;
+                    }
+                    if (rec.value().getLast() && filter.test(rec.value())) {
+                        found = rec;
+                    }
+                }
+            }
+            if (found != null) {
+                return found;
+            }
+            to = from;
+            window *= 2;
+        }
+        return null;
+    }
 
+    private static List<ConsumerRecord<Long, Str.SnapshotChunk>> poll(
+        org.apache.kafka.clients.consumer.Consumer<Long, Str.SnapshotChunk> consumer,
+        TopicPartition snapshotsTp
+    ) {
+        List<ConsumerRecord<Long, Str.SnapshotChunk>> records = consumer.poll(Duration.ofMillis(SNAPSHOTS_POLL_TIMEOUT)).records(snapshotsTp);
+        if (records.isEmpty()) {
+            throw new IllegalStateException("Couldn't read snapshots in " + SNAPSHOTS_POLL_TIMEOUT + " ms");
+        }
+        return records;
     }
 }
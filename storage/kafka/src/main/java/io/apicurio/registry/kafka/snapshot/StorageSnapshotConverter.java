@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.kafka.snapshot;
+
+import com.google.protobuf.UnsafeByteOperations;
+import io.apicurio.registry.storage.impl.ArtifactVersionRecord;
+import io.apicurio.registry.storage.proto.Str;
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+
+/**
+ * Converts artifact versions from / to their snapshot (protobuf) representation.
+ */
+public final class StorageSnapshotConverter {
+
+    private StorageSnapshotConverter() {
+    }
+
+    public static Str.SnapshotVersionValue toValue(ArtifactVersionRecord record) {
+        Str.SnapshotVersionValue.Builder builder = Str.SnapshotVersionValue.newBuilder()
+            .setArtifactId(record.getArtifactId())
+            .setGlobalId(record.getGlobalId())
+            .setVersion(record.getVersion())
+            .setArtifactType(record.getType().ordinal())
+            .setState(Str.ArtifactState.valueOf(record.getState().name()))
+            .setCreatedOn(record.getCreatedOn())
+            .setModifiedOn(record.getModifiedOn())
+            // records are immutable, no need to copy the content
+            .setContent(UnsafeByteOperations.unsafeWrap(record.getContent()));
+        // proto3 strings cannot be null, empty means not set
+        if (record.getName() != null) {
+            builder.setName(record.getName());
+        }
+        if (record.getDescription() != null) {
+            builder.setDescription(record.getDescription());
+        }
+        if (record.getCanonicalHash() != null) {
+            builder.setCanonicalHash(record.getCanonicalHash());
+        }
+        return builder.build();
+    }
+
+    public static ArtifactVersionRecord toRecord(Str.SnapshotVersionValue value) {
+        return ArtifactVersionRecord.builder()
+            .artifactId(value.getArtifactId())
+            .globalId(value.getGlobalId())
+            .version(value.getVersion())
+            .type(ArtifactType.values()[value.getArtifactType()])
+            .state(ArtifactState.valueOf(value.getState().name()))
+            .name(emptyToNull(value.getName()))
+            .description(emptyToNull(value.getDescription()))
+            .createdOn(value.getCreatedOn())
+            .modifiedOn(value.getModifiedOn())
+            .canonicalHash(emptyToNull(value.getCanonicalHash()))
+            .content(value.getContent().toByteArray())
+            .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.kafka.snapshot;
+
+import io.apicurio.registry.storage.impl.ArtifactVersionIndex;
+import io.apicurio.registry.storage.impl.ArtifactVersionRecord;
+import io.apicurio.registry.storage.proto.Str;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Writes the storage state as a sequence of snapshot chunks, each of them (roughly) limited to the chunk size,
+ * so the whole state never has to be serialized at once.
+ * <p>
+ * Chunks are handed to the sink one by one, in sequence. The last chunk is marked as such
+ * and points to the (snapshot topic) offset of the first chunk, so the snapshot can be found and loaded from the end.
+ * <p>
+ * A delta snapshot only contains the artifacts and rules changed since its base snapshot,
+ * and is loaded on top of it.
+ * The writer is not thread-safe, and should only be used for a single snapshot.
+ */
+public class StorageSnapshotWriter {
+
+    private final long offset;
+    private final int chunkBytes;
+    private final Function<Str.SnapshotChunk, CompletableFuture<RecordMetadata>> sink;
+
+    private boolean delta;
+    private long baseOffset;
+
+    private Str.SnapshotChunk.Builder builder;
+    private int builderBytes;
+    private int chunks;
+    private long bytes;
+    private CompletableFuture<RecordMetadata> first;
+
+    public StorageSnapshotWriter(long offset, int chunkBytes, Function<Str.SnapshotChunk, CompletableFuture<RecordMetadata>> sink) {
+        this.offset = offset;
+        this.chunkBytes = chunkBytes;
+        this.sink = sink;
+    }
+
+    /**
+     * Writes a full snapshot.
+     *
+     * @return future of the last chunk, completed once the whole snapshot is written
+     */
+    public CompletableFuture<RecordMetadata> write(
+        Map<String, ArtifactVersionIndex> storage,
+        Map<String, Map<String, String>> artifactRules,
+        Map<String, String> globalRules
+    ) {
+        builder = newChunk();
+
+        add(Str.SnapshotRulesValue.newBuilder().putAllRules(globalRules).build());
+        for (Map.Entry<String, Map<String, String>> entry : artifactRules.entrySet()) {
+            add(Str.SnapshotRulesValue.newBuilder().setArtifactId(entry.getKey()).putAllRules(entry.getValue()).build());
+        }
+
+        for (ArtifactVersionIndex v2r : storage.values()) {
+            addVersions(v2r);
+        }
+
+        return finish();
+    }
+
+    /**
+     * Writes a delta snapshot, with the changed artifacts and rules.
+     *
+     * @param baseOffset storage offset of the snapshot this delta is based on
+     * @param changedArtifacts ids of the artifacts whose versions changed (incl. removed artifacts)
+     * @param changedRules ids of the artifacts whose rules changed (incl. removed artifacts)
+     * @param globalRulesChanged whether the global rules changed
+     * @return future of the last chunk, completed once the whole snapshot is written
+     */
+    public CompletableFuture<RecordMetadata> writeDelta(
+        long baseOffset,
+        Map<String, ArtifactVersionIndex> storage,
+        Map<String, Map<String, String>> artifactRules,
+        Map<String, String> globalRules,
+        Set<String> changedArtifacts,
+        Set<String> changedRules,
+        boolean globalRulesChanged
+    ) {
+        this.delta = true;
+        this.baseOffset = baseOffset;
+        builder = newChunk();
+
+        if (globalRulesChanged) {
+            add(Str.SnapshotRulesValue.newBuilder().putAllRules(globalRules).build());
+        }
+        for (String artifactId : changedRules) {
+            // an empty value removes the rules
+            Map<String, String> rules = artifactRules.getOrDefault(artifactId, Collections.emptyMap());
+            add(Str.SnapshotRulesValue.newBuilder().setArtifactId(artifactId).putAllRules(rules).build());
+        }
+
+        for (String artifactId : changedArtifacts) {
+            // the reset always precedes the versions, so it's loaded first
+            addReset(artifactId);
+            ArtifactVersionIndex v2r = storage.get(artifactId);
+            if (v2r != null) {
+                addVersions(v2r);
+            }
+        }
+
+        return finish();
+    }
+
+    private CompletableFuture<RecordMetadata> finish() {
+        builder.setLast(true);
+        if (first == null) {
+            return flush();
+        }
+        // the last chunk needs the offset of the first one, so it's chained to it, without blocking the caller;
+        // (async, so it's not sent from the producer's I/O thread) -- if the first chunk fails, so does the snapshot
+        return first.thenComposeAsync(recordMeta -> {
+            builder.setFirstOffset(recordMeta.offset());
+            return flush();
+        });
+    }
+
+    /**
+     * @return number of chunks written so far
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return serialized size of the chunks written so far
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    private Str.SnapshotChunk.Builder newChunk() {
+        return Str.SnapshotChunk.newBuilder()
+                                .setOffset(offset)
+                                .setSequence(chunks)
+                                .setDelta(delta)
+                                .setBaseOffset(baseOffset);
+    }
+
+    private void addVersions(ArtifactVersionIndex v2r) {
+        for (ArtifactVersionRecord record : v2r.values()) {
+            add(StorageSnapshotConverter.toValue(record));
+        }
+    }
+
+    private void addReset(String artifactId) {
+        beforeAdd(artifactId.length() + 2);
+        builder.addResets(artifactId);
+    }
+
+    private void add(Str.SnapshotRulesValue value) {
+        beforeAdd(value.getSerializedSize());
+        builder.addRules(value);
+    }
+
+    private void add(Str.SnapshotVersionValue value) {
+        beforeAdd(value.getSerializedSize());
+        builder.addVersions(value);
+    }
+
+    private void beforeAdd(int size) {
+        // a single value bigger than the chunk size still gets its own chunk
+        if (builderBytes > 0 && builderBytes + size > chunkBytes) {
+            flush();
+            builder = newChunk();
+            builderBytes = 0;
+        }
+        builderBytes += size;
+    }
+
+    private CompletableFuture<RecordMetadata> flush() {
+        Str.SnapshotChunk chunk = builder.build();
+        bytes += chunk.getSerializedSize();
+        CompletableFuture<RecordMetadata> cf = sink.apply(chunk);
+        if (chunks == 0) {
+            first = cf;
+        }
+        chunks++;
+        return cf;
+    }
+}
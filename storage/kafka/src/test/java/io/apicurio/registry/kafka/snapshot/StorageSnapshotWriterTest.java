@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.kafka.snapshot;
+
+import io.apicurio.registry.storage.impl.ArtifactVersionIndex;
+import io.apicurio.registry.storage.impl.ArtifactVersionRecord;
+import io.apicurio.registry.storage.proto.Str;
+import io.apicurio.registry.types.ArtifactState;
+import io.apicurio.registry.types.ArtifactType;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class StorageSnapshotWriterTest {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    @Test
+    void testChunks() throws Exception {
+        Map<String, ArtifactVersionIndex> storage = new HashMap<>();
+        Map<Long, ArtifactVersionRecord> global = new HashMap<>();
+        long globalId = 0;
+        for (int i = 0; i < 100; i++) {
+            ArtifactVersionIndex v2r = new ArtifactVersionIndex();
+            for (long version = 1; version <= 10; version++) {
+                ArtifactVersionRecord record = ArtifactVersionRecord.builder()
+                    .artifactId("artifact-" + i)
+                    .globalId(++globalId)
+                    .version(version)
+                    .type(ArtifactType.AVRO)
+                    .state(version == 1 ? ArtifactState.DEPRECATED : ArtifactState.ENABLED)
+                    .name(version % 2 == 0 ? "name-" + i : null)
+                    .createdOn(System.currentTimeMillis())
+                    .modifiedOn(System.currentTimeMillis())
+                    .canonicalHash("hash-" + globalId)
+                    .content(new byte[1024])
+                    .build();
+                v2r.putIfAbsent(record);
+                global.put(record.getGlobalId(), record);
+            }
+            storage.put("artifact-" + i, v2r);
+        }
+        Map<String, Map<String, String>> artifactRules = Collections.singletonMap("artifact-1", Collections.singletonMap("VALIDITY", "FULL"));
+        Map<String, String> globalRules = Collections.singletonMap("COMPATIBILITY", "BACKWARD");
+
+        List<Str.SnapshotChunk> chunks = new ArrayList<>();
+        StorageSnapshotWriter writer = new StorageSnapshotWriter(42, CHUNK_BYTES, chunk -> {
+            chunks.add(chunk);
+            RecordMetadata rmd = new RecordMetadata(new TopicPartition("snapshots", 0), 100, chunks.size() - 1, 0, 0L, 8, chunk.getSerializedSize());
+            return CompletableFuture.completedFuture(rmd);
+        });
+        RecordMetadata last = writer.write(storage, artifactRules, globalRules).get();
+
+        Assertions.assertTrue(chunks.size() > 1);
+        Assertions.assertEquals(chunks.size(), writer.getChunks());
+        Assertions.assertEquals(100 + chunks.size() - 1, last.offset());
+        for (int i = 0; i < chunks.size(); i++) {
+            Str.SnapshotChunk chunk = chunks.get(i);
+            Assertions.assertEquals(i, chunk.getSequence());
+            Assertions.assertEquals(42, chunk.getOffset());
+            Assertions.assertEquals(i == chunks.size() - 1, chunk.getLast());
+            // a bit of framing overhead per value is fine
+            Assertions.assertTrue(chunk.getSerializedSize() < CHUNK_BYTES + 1024);
+        }
+        Assertions.assertEquals(100, chunks.get(chunks.size() - 1).getFirstOffset());
+
+        // load it back
+        Map<Long, ArtifactVersionRecord> loaded = new HashMap<>();
+        Map<String, Map<String, String>> loadedRules = new HashMap<>();
+        for (Str.SnapshotChunk chunk : chunks) {
+            chunk.getVersionsList().forEach(v -> {
+                ArtifactVersionRecord record = StorageSnapshotConverter.toRecord(v);
+                loaded.put(record.getGlobalId(), record);
+            });
+            chunk.getRulesList().forEach(r -> loadedRules.put(r.getArtifactId(), r.getRulesMap()));
+        }
+        Assertions.assertEquals(global.size(), loaded.size());
+        global.forEach((id, record) -> {
+            ArtifactVersionRecord copy = loaded.get(id);
+            Assertions.assertEquals(record.toArtifactMetaData(), copy.toArtifactMetaData());
+            Assertions.assertEquals(record.getCanonicalHash(), copy.getCanonicalHash());
+            Assertions.assertArrayEquals(record.getContent(), copy.getContent());
+        });
+        Assertions.assertEquals(globalRules, loadedRules.get(""));
+        Assertions.assertEquals(artifactRules.get("artifact-1"), loadedRules.get("artifact-1"));
+    }
+
+    @Test
+    void testDelta() throws Exception {
+        ArtifactVersionIndex v2r = new ArtifactVersionIndex();
+        v2r.putIfAbsent(ArtifactVersionRecord.builder()
+            .artifactId("changed")
+            .globalId(1)
+            .version(1)
+            .type(ArtifactType.JSON)
+            .state(ArtifactState.ENABLED)
+            .content(new byte[16])
+            .build());
+        Map<String, ArtifactVersionIndex> storage = new HashMap<>();
+        storage.put("changed", v2r);
+        storage.put("unchanged", new ArtifactVersionIndex());
+
+        List<Str.SnapshotChunk> chunks = new ArrayList<>();
+        StorageSnapshotWriter writer = new StorageSnapshotWriter(2000, CHUNK_BYTES, chunk -> {
+            chunks.add(chunk);
+            return CompletableFuture.completedFuture(new RecordMetadata(new TopicPartition("snapshots", 0), 0, 0, 0, 0L, 8, 0));
+        });
+        writer.writeDelta(
+            1000,
+            storage,
+            Collections.emptyMap(),
+            Collections.singletonMap("COMPATIBILITY", "BACKWARD"),
+            new HashSet<>(Arrays.asList("changed", "removed")),
+            Collections.singleton("removed"),
+            false
+        ).get();
+
+        Assertions.assertEquals(1, chunks.size());
+        Str.SnapshotChunk chunk = chunks.get(0);
+        Assertions.assertTrue(chunk.getDelta());
+        Assertions.assertTrue(chunk.getLast());
+        Assertions.assertEquals(1000, chunk.getBaseOffset());
+        Assertions.assertEquals(2000, chunk.getOffset());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("changed", "removed")), new HashSet<>(chunk.getResetsList()));
+        Assertions.assertEquals(1, chunk.getVersionsCount());
+        Assertions.assertEquals("changed", chunk.getVersions(0).getArtifactId());
+        // removed rules are written as empty, global rules didn't change
+        Assertions.assertEquals(1, chunk.getRulesCount());
+        Assertions.assertEquals("removed", chunk.getRules(0).getArtifactId());
+        Assertions.assertEquals(0, chunk.getRules(0).getRulesCount());
+    }
+
+    @Test
+    void testLastChunkChainedToFirst() throws Exception {
+        ArtifactVersionIndex v2r = new ArtifactVersionIndex();
+        for (int i = 0; i < 4; i++) {
+            v2r.putIfAbsent(ArtifactVersionRecord.builder()
+                .artifactId("artifact")
+                .globalId(i)
+                .version(i + 1)
+                .type(ArtifactType.JSON)
+                .state(ArtifactState.ENABLED)
+                .content(new byte[CHUNK_BYTES])
+                .build());
+        }
+
+        List<Str.SnapshotChunk> chunks = new ArrayList<>();
+        CompletableFuture<RecordMetadata> first = new CompletableFuture<>();
+        StorageSnapshotWriter writer = new StorageSnapshotWriter(42, CHUNK_BYTES, chunk -> {
+            chunks.add(chunk);
+            if (chunks.size() == 1) {
+                return first;
+            }
+            return CompletableFuture.completedFuture(new RecordMetadata(new TopicPartition("snapshots", 0), 100, chunks.size() - 1, 0, 0L, 8, 0));
+        });
+        CompletableFuture<RecordMetadata> last = writer.write(Collections.singletonMap("artifact", v2r), Collections.emptyMap(), Collections.emptyMap());
+
+        // doesn't wait for the first chunk, the last one is only written after it
+        Assertions.assertFalse(last.isDone());
+        Assertions.assertFalse(chunks.get(chunks.size() - 1).getLast());
+        first.complete(new RecordMetadata(new TopicPartition("snapshots", 0), 100, 0, 0, 0L, 8, 0));
+        last.get(10, TimeUnit.SECONDS);
+        Str.SnapshotChunk lastChunk = chunks.get(chunks.size() - 1);
+        Assertions.assertTrue(lastChunk.getLast());
+        Assertions.assertEquals(100, lastChunk.getFirstOffset());
+
+        // a failed first chunk fails the snapshot, without writing the last chunk
+        chunks.clear();
+        first.obtrudeException(new IllegalStateException("failed"));
+        writer = new StorageSnapshotWriter(42, CHUNK_BYTES, chunk -> {
+            chunks.add(chunk);
+            return first;
+        });
+        last = writer.write(Collections.singletonMap("artifact", v2r), Collections.emptyMap(), Collections.emptyMap());
+        Assertions.assertThrows(ExecutionException.class, last::get);
+        Assertions.assertTrue(chunks.stream().noneMatch(Str.SnapshotChunk::getLast));
+    }
+}
@@ -8,9 +8,13 @@ import java.util.Properties;
 public interface StreamsProperties {
     Properties getProperties();
     long toGlobalId(long offset, int partition);
+    int toPartition(long globalId);
     long getBaseOffset();
     String getStorageStoreName();
     String getGlobalIdStoreName();
+    String getContentStoreName();
+    String getArtifactIdsStoreName();
+    boolean isPersistentStores();
     String getStorageTopic();
     String getGlobalIdTopic();
     String getApplicationServer();
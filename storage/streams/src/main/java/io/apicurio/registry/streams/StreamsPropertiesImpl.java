@@ -22,6 +22,11 @@ public class StreamsPropertiesImpl implements StreamsProperties {
         return getBaseOffset() + (offset << 16) + partition;
     }
 
+    // the storage topic partition of the global id, see toGlobalId
+    public int toPartition(long globalId) {
+        return (int) ((globalId - getBaseOffset()) & 0xFFFF);
+    }
+
     // just to make sure we can always move the whole system
     // and not get duplicates; e.g. after move baseOffset = max(globalId) + 1
     public long getBaseOffset() {
@@ -36,6 +41,20 @@ public class StreamsPropertiesImpl implements StreamsProperties {
         return properties.getProperty("global.id.store", "global-id-store");
     }
 
+    public String getContentStoreName() {
+        return properties.getProperty("content.store", "content-store");
+    }
+
+    public String getArtifactIdsStoreName() {
+        return properties.getProperty("artifact.ids.store", "artifact-ids-store");
+    }
+
+    // RocksDB backed stores, instead of in-memory ones,
+    // so that a restart only needs to restore the changelog delta
+    public boolean isPersistentStores() {
+        return Boolean.parseBoolean(properties.getProperty("store.persistent", "false"));
+    }
+
     public String getStorageTopic() {
         return properties.getProperty("storage.topic", "storage-topic");
     }
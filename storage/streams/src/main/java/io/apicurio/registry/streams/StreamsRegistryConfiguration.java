@@ -22,6 +22,7 @@ import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.errors.InvalidStateStoreException;
 import org.apache.kafka.streams.kstream.ForeachAction;
@@ -87,6 +88,13 @@ public class StreamsRegistryConfiguration {
         ForeachAction<? super String, ? super Str.Data> dataDispatcher,
         ArtifactTypeUtilProviderFactory factory
     ) {
+        if (properties.isPersistentStores()) {
+            properties.getProperties().putIfAbsent(
+                StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG,
+                RegistryRocksDBConfigSetter.class.getName()
+            );
+        }
+
         Topology topology = new StreamsTopologyProvider(properties, dataDispatcher, factory).get();
 
         KafkaStreams streams = new KafkaStreams(topology, properties.getProperties());
@@ -95,7 +103,14 @@ public class StreamsRegistryConfiguration {
         return streams;
     }
 
-    public void init(@Observes StartupEvent event, KafkaStreams streams) {
+    public void init(@Observes StartupEvent event, KafkaStreams streams, StreamsProperties properties) {
+        long start = System.currentTimeMillis();
+        streams.setStateListener((newState, oldState) -> {
+            if (newState == KafkaStreams.State.RUNNING) {
+                log.info("Storage streams running after {} ms (persistent stores: {})",
+                         System.currentTimeMillis() - start, properties.isPersistentStores());
+            }
+        });
         streams.start();
     }
 
@@ -163,6 +178,52 @@ public class StreamsRegistryConfiguration {
         close(store);
     }
 
+    @Produces
+    @ApplicationScoped
+    public ReadOnlyKeyValueStore<Long, byte[]> contentKeyValueStore(
+        KafkaStreams streams,
+        HostInfo storageLocalHost,
+        StreamsProperties properties
+    ) {
+        return new DistributedReadOnlyKeyValueStore<>(
+            streams,
+            storageLocalHost,
+            properties.getContentStoreName(),
+            Serdes.Long(), Serdes.ByteArray(),
+            new DefaultGrpcChannelProvider(),
+            true,
+            (filter, over, id, content) -> true,
+            // the content is partitioned by artifactId, same as the storage store
+            (topic, id, value, partitions) -> properties.toPartition(id)
+        );
+    }
+
+    public void destroyContentStore(@Observes ShutdownEvent event, ReadOnlyKeyValueStore<Long, byte[]> store) {
+        close(store);
+    }
+
+    @Produces
+    @ApplicationScoped
+    public ExtReadOnlyKeyValueStore<String, Integer> artifactIdsKeyValueStore(
+        KafkaStreams streams,
+        HostInfo storageLocalHost,
+        StreamsProperties properties
+    ) {
+        return new DistributedReadOnlyKeyValueStore<>(
+            streams,
+            storageLocalHost,
+            properties.getArtifactIdsStoreName(),
+            Serdes.String(), Serdes.Integer(),
+            new DefaultGrpcChannelProvider(),
+            true,
+            (filter, over, id, count) -> true
+        );
+    }
+
+    public void destroyArtifactIdsStore(@Observes ShutdownEvent event, ExtReadOnlyKeyValueStore<String, Integer> store) {
+        close(store);
+    }
+
     @Produces
     @Singleton
     public ForeachActionDispatcher<String, Str.Data> dataDispatcher() {
@@ -335,6 +396,14 @@ public class StreamsRegistryConfiguration {
                 .register(
                     props.getGlobalIdStoreName(),
                     Serdes.Long(), ProtoSerde.parsedWith(Str.TupleValue.parser())
+                )
+                .register(
+                    props.getContentStoreName(),
+                    Serdes.Long(), Serdes.ByteArray()
+                )
+                .register(
+                    props.getArtifactIdsStoreName(),
+                    Serdes.String(), Serdes.Integer()
                 ),
             filterPredicate
         );
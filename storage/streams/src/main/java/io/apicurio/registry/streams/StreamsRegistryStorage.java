@@ -1,7 +1,6 @@
 package io.apicurio.registry.streams;
 
 import io.apicurio.registry.content.ContentHandle;
-import io.apicurio.registry.content.canon.ContentCanonicalizer;
 import io.apicurio.registry.metrics.PersistenceExceptionLivenessApply;
 import io.apicurio.registry.metrics.PersistenceTimeoutReadinessApply;
 import io.apicurio.registry.rest.beans.ArtifactSearchResults;
@@ -9,17 +8,17 @@ import io.apicurio.registry.rest.beans.SearchOver;
 import io.apicurio.registry.rest.beans.SearchedArtifact;
 import io.apicurio.registry.rest.beans.SortOrder;
 import io.apicurio.registry.storage.*;
-import io.apicurio.registry.storage.impl.AbstractMapRegistryStorage;
 import io.apicurio.registry.storage.proto.Str;
 import io.apicurio.registry.streams.diservice.AsyncBiFunctionService;
 import io.apicurio.registry.streams.distore.ExtReadOnlyKeyValueStore;
 import io.apicurio.registry.streams.distore.FilterPredicate;
+import io.apicurio.registry.streams.distore.FilteredKeys;
 import io.apicurio.registry.types.ArtifactState;
 import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.types.Current;
 import io.apicurio.registry.types.RuleType;
-import io.apicurio.registry.types.provider.ArtifactTypeUtilProvider;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProviderFactory;
+import io.apicurio.registry.util.ContentHashUtil;
 import io.apicurio.registry.util.SearchUtil;
 import io.apicurio.registry.utils.ConcurrentUtil;
 import io.apicurio.registry.utils.kafka.ProducerActions;
@@ -39,7 +38,6 @@ import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -60,6 +58,8 @@ public class StreamsRegistryStorage implements RegistryStorage {
 
     /* Fake global rules as an artifact */
     public static final String GLOBAL_RULES_ID = "__GLOBAL_RULES__";
+    // marks the artifact ids store as filled, see StreamsTopologyProvider
+    public static final String ARTIFACT_IDS_FILLED_ID = "__ARTIFACT_IDS_FILLED__";
 
     @Inject
     KafkaStreams streams;
@@ -76,6 +76,12 @@ public class StreamsRegistryStorage implements RegistryStorage {
     @Inject
     ReadOnlyKeyValueStore<Long, Str.TupleValue> globalIdStore;
 
+    @Inject
+    ReadOnlyKeyValueStore<Long, byte[]> contentStore;
+
+    @Inject
+    ExtReadOnlyKeyValueStore<String, Integer> artifactIdsStore;
+
     @Inject
     @Current
     AsyncBiFunctionService<String, Long, Str.Data> storageFunction;
@@ -98,10 +104,26 @@ public class StreamsRegistryStorage implements RegistryStorage {
         return storageProducer.apply(record);
     }
 
-    private static StoredArtifact addContent(Str.ArtifactValue value) {
-        Map<String, String> contents = new HashMap<>(value.getMetadataMap());
-        MetaDataKeys.putContent(contents, value.getContent().toByteArray());
-        return AbstractMapRegistryStorage.toStoredArtifact(contents);
+    private byte[] getContent(Str.ArtifactValue value) {
+        byte[] content = contentStore.get(value.getId());
+        if (content == null) {
+            // stored before the content was moved to the content store
+            if (value.getContent().isEmpty()) {
+                // e.g. just deleted
+                throw new ArtifactNotFoundException("GlobalId: " + value.getId());
+            }
+            content = value.getContent().toByteArray();
+        }
+        return content;
+    }
+
+    private StoredArtifact addContent(Str.ArtifactValue value) {
+        Map<String, String> metadata = value.getMetadataMap();
+        return StoredArtifact.builder()
+                             .content(ContentHandle.create(getContent(value)))
+                             .version(Long.parseLong(metadata.get(MetaDataKeys.VERSION)))
+                             .id(Long.parseLong(metadata.get(MetaDataKeys.GLOBAL_ID)))
+                             .build();
     }
 
     private static boolean isValid(Str.ArtifactValue value) {
@@ -140,7 +162,17 @@ public class StreamsRegistryStorage implements RegistryStorage {
     }
 
     static FilterPredicate<String, Str.Data> createFilterPredicate() {
-        return (filter, over, artifactId, data) -> (findMetadata(filter, over, data) != null);
+        return new FilterPredicate<String, Str.Data>() {
+            @Override
+            public boolean test(String filter, String over, String artifactId, Str.Data data) {
+                return findMetadata(filter, over, data) != null;
+            }
+
+            @Override
+            public Comparator<String> keyComparator() {
+                return SearchUtil.comparator(SortOrder.asc);
+            }
+        };
     }
 
     private static Map<String, String> findMetadata(String filter, String over, Str.Data data) {
@@ -224,19 +256,6 @@ public class StreamsRegistryStorage implements RegistryStorage {
         }
     }
 
-    private boolean exists(String artifactId) {
-        Str.Data data = storageStore.get(artifactId);
-        if (data != null) {
-            for (int i = 0; i < data.getArtifactsCount(); i++) {
-                Str.ArtifactValue artifact = data.getArtifacts(i);
-                if (isValid(artifact)) {
-                    return true; // we found a valid one
-                }
-            }
-        }
-        return false;
-    }
-
     @Override
     public boolean isReady() {
         // first a quick local check
@@ -354,30 +373,31 @@ public class StreamsRegistryStorage implements RegistryStorage {
     @Override
     public Set<String> getArtifactIds() {
         Set<String> ids = new TreeSet<>();
-        try (Stream<String> stream = storageStore.allKeys()) {
-            // exists can be costly ...
-            stream.filter(this::exists).forEach(ids::add);
+        // only artifacts with a valid version are in the artifact ids store
+        try (Stream<String> stream = artifactIdsStore.allKeys()) {
+            stream.filter(id -> !ARTIFACT_IDS_FILLED_ID.equals(id)).forEach(ids::add);
         }
-        ids.remove(GLOBAL_RULES_ID);
         return ids;
     }
 
     @Override
     public ArtifactSearchResults searchArtifacts(String search, Integer offset, Integer limit, SearchOver searchOver, SortOrder sortOrder) {
-        LongAdder itemsCount = new LongAdder();
-        List<SearchedArtifact> matchedArtifacts = storageStore.filter(search, searchOver.value())
-            .peek(artifactId -> itemsCount.increment())
-            .sorted((kv1, kv2) -> SearchUtil.compare(sortOrder, kv1.key, kv2.key))
+        // only the keys of the requested page are sent over, then we get just their values
+        int max = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        FilteredKeys<String> filteredKeys = storageStore.filterKeys(search, searchOver.value(), sortOrder == SortOrder.desc, max);
+        List<SearchedArtifact> matchedArtifacts = filteredKeys.getKeys()
+            .stream()
             .skip(offset)
-            .limit(limit)
-            .map(kv -> SearchUtil.buildSearchedArtifact(
-                MetaDataKeys.toArtifactMetaData(findMetadata(search, searchOver.value(), kv.value)))
-            )
+            .map(storageStore::get)
+            .filter(Objects::nonNull)
+            .map(data -> findMetadata(search, searchOver.value(), data))
+            .filter(Objects::nonNull)
+            .map(metadata -> SearchUtil.buildSearchedArtifact(MetaDataKeys.toArtifactMetaData(metadata)))
             .collect(Collectors.toList());
 
         final ArtifactSearchResults artifactSearchResults = new ArtifactSearchResults();
         artifactSearchResults.setArtifacts(matchedArtifacts);
-        artifactSearchResults.setCount(itemsCount.intValue());
+        artifactSearchResults.setCount((int) filteredKeys.getCount());
 
         return artifactSearchResults;
     }
@@ -395,20 +415,19 @@ public class StreamsRegistryStorage implements RegistryStorage {
 
         Str.Data data = storageStore.get(artifactId);
         if (data != null) {
-            // Create a canonicalizer for the artifact based on its type, and then 
-            // canonicalize the inbound content
-            ArtifactTypeUtilProvider provider = factory.getArtifactTypeProvider(metaData.getType());
-            ContentCanonicalizer canonicalizer = provider.getContentCanonicalizer();
-            ContentHandle canonicalContent = canonicalizer.canonicalize(content);
-            byte[] canonicalBytes = canonicalContent.bytes();
+            // Compare the canonical content hash, computed when the version was stored,
+            // and only canonicalize candidates stored before the hash was introduced
+            String canonicalHash = ContentHashUtil.canonicalHash(factory, metaData.getType(), content);
 
             for (int i = data.getArtifactsCount() - 1; i >= 0; i--) {
                 Str.ArtifactValue candidateArtifact = data.getArtifacts(i);
                 if (isValid(candidateArtifact)) {
-                    ContentHandle candidateContent = ContentHandle.create(candidateArtifact.getContent().toByteArray());
-                    ContentHandle canonicalCandidateContent = canonicalizer.canonicalize(candidateContent);
-                    byte[] candidateBytes = canonicalCandidateContent.bytes();
-                    if (Arrays.equals(canonicalBytes, candidateBytes)) {
+                    String candidateHash = candidateArtifact.getCanonicalHash();
+                    if (candidateHash.isEmpty()) {
+                        ContentHandle candidateContent = ContentHandle.create(getContent(candidateArtifact));
+                        candidateHash = ContentHashUtil.legacyCanonicalHash(factory, metaData.getType(), candidateContent);
+                    }
+                    if (canonicalHash.equals(candidateHash)) {
                         return MetaDataKeys.toArtifactMetaData(candidateArtifact.getMetadataMap());
                     }
                 }
@@ -555,9 +574,22 @@ public class StreamsRegistryStorage implements RegistryStorage {
         return getArtifactVersion(value.getArtifactId(), value.getVersion());
     }
 
+    @Override
+    public ArtifactContentDto getArtifactContent(long id) throws ArtifactNotFoundException, RegistryStorageException {
+        Str.TupleValue tuple = globalIdStore.get(id);
+        if (tuple == null) {
+            throw new ArtifactNotFoundException("GlobalId: " + id);
+        }
+        // same rules as getArtifactVersion(long)
+        return handleVersion(tuple.getArtifactId(), tuple.getVersion(), ArtifactStateExt.ACTIVE_STATES, value -> ArtifactContentDto.builder()
+            .metaData(MetaDataKeys.toArtifactMetaData(value.getMetadataMap()))
+            .content(ContentHandle.create(getContent(value)))
+            .build());
+    }
+
     @Override
     public StoredArtifact getArtifactVersion(String artifactId, long version) throws ArtifactNotFoundException, VersionNotFoundException, RegistryStorageException {
-        return handleVersion(artifactId, version, ArtifactStateExt.ACTIVE_STATES, StreamsRegistryStorage::addContent);
+        return handleVersion(artifactId, version, ArtifactStateExt.ACTIVE_STATES, this::addContent);
     }
 
     @Override
@@ -13,6 +13,7 @@ import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.types.RuleType;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProvider;
 import io.apicurio.registry.types.provider.ArtifactTypeUtilProviderFactory;
+import io.apicurio.registry.util.ContentHashUtil;
 import io.apicurio.registry.utils.kafka.ProtoSerde;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.Serdes;
@@ -26,6 +27,8 @@ import org.apache.kafka.streams.kstream.Produced;
 import org.apache.kafka.streams.kstream.Transformer;
 import org.apache.kafka.streams.processor.AbstractProcessor;
 import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.KeyValueStore;
 import org.apache.kafka.streams.state.StoreBuilder;
 import org.apache.kafka.streams.state.Stores;
@@ -40,6 +43,9 @@ import java.util.function.Supplier;
 
 /**
  * Request --> Storage (topic / store) --> GlobalId (topic / store)
+ * <p>
+ * The storage store only holds the (thin) version index of each artifact, the content of the versions
+ * is kept in the content store, by global id, so updates don't rewrite the content of the whole history.
  *
  * @author Ales Justin
  */
@@ -83,7 +89,7 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
         StoreBuilder<KeyValueStore<String /* artifactId */, Str.Data>> storageStoreBuilder =
             Stores
                 .keyValueStoreBuilder(
-                    Stores.inMemoryKeyValueStore(storageStoreName),
+                    storeSupplier(storageStoreName),
                     Serdes.String(), ProtoSerde.parsedWith(Str.Data.parser())
                 )
                 .withCachingEnabled()
@@ -91,11 +97,39 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
 
         builder.addStateStore(storageStoreBuilder);
 
+        // Content of every artifact version, co-partitioned with the storage store
+        // (the storage topic partition is part of the global id)
+        String contentStoreName = properties.getContentStoreName();
+        StoreBuilder<KeyValueStore<Long /* globalId */, byte[]>> contentStoreBuilder =
+            Stores
+                .keyValueStoreBuilder(
+                    storeSupplier(contentStoreName),
+                    Serdes.Long(), Serdes.ByteArray()
+                )
+                .withCachingEnabled()
+                .withLoggingEnabled(configuration);
+
+        builder.addStateStore(contentStoreBuilder);
+
+        // Ids of the artifacts with at least one valid version, and the count of those versions,
+        // so the artifact ids can be listed without reading (or sending over) the whole artifact Data
+        String artifactIdsStoreName = properties.getArtifactIdsStoreName();
+        StoreBuilder<KeyValueStore<String /* artifactId */, Integer>> artifactIdsStoreBuilder =
+            Stores
+                .keyValueStoreBuilder(
+                    storeSupplier(artifactIdsStoreName),
+                    Serdes.String(), Serdes.Integer()
+                )
+                .withCachingEnabled()
+                .withLoggingEnabled(configuration);
+
+        builder.addStateStore(artifactIdsStoreBuilder);
+
         // We transform <artifactId, Data> into simple mapping <globalId, <artifactId, version>>
         KStream<Long, Str.TupleValue> globalRequest =
             storageRequest.transform(
                 () -> new StorageTransformer(properties, dataDispatcher, factory),
-                storageStoreName
+                storageStoreName, contentStoreName, artifactIdsStoreName
             ).through(
                 properties.getGlobalIdTopic(),
                 Produced.with(Serdes.Long(), ProtoSerde.parsedWith(Str.TupleValue.parser()))
@@ -105,7 +139,7 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
         StoreBuilder<KeyValueStore<Long /* globalId */, Str.TupleValue>> globalIdStoreBuilder =
             Stores
                 .keyValueStoreBuilder(
-                    Stores.inMemoryKeyValueStore(globalIdStoreName),
+                    storeSupplier(globalIdStoreName),
                     Serdes.Long(), ProtoSerde.parsedWith(Str.TupleValue.parser())
                 )
                 .withCachingEnabled()
@@ -119,6 +153,14 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
         return builder.build(properties.getProperties());
     }
 
+    private KeyValueBytesStoreSupplier storeSupplier(String storeName) {
+        if (properties.isPersistentStores()) {
+            return Stores.persistentKeyValueStore(storeName);
+        } else {
+            return Stores.inMemoryKeyValueStore(storeName);
+        }
+    }
+
     private static class GlobalIdProcessor extends AbstractProcessor<Long, Str.TupleValue> {
         private final String storeName;
         private KeyValueStore<Long, Str.TupleValue> store;
@@ -128,9 +170,9 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public void init(ProcessorContext context) {
             super.init(context);
-            //noinspection unchecked
             store = (KeyValueStore<Long, Str.TupleValue>) context.getStateStore(storeName);
         }
 
@@ -153,6 +195,8 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
 
         private ProcessorContext context;
         private KeyValueStore<String, Str.Data> store;
+        private KeyValueStore<Long, byte[]> contentStore;
+        private KeyValueStore<String, Integer> artifactIdsStore;
 
         public StorageTransformer(
             StreamsProperties properties,
@@ -165,10 +209,36 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public void init(ProcessorContext context) {
             this.context = context;
-            //noinspection unchecked
             store = (KeyValueStore<String, Str.Data>) context.getStateStore(properties.getStorageStoreName());
+            contentStore = (KeyValueStore<Long, byte[]>) context.getStateStore(properties.getContentStoreName());
+            artifactIdsStore = (KeyValueStore<String, Integer>) context.getStateStore(properties.getArtifactIdsStoreName());
+
+            // artifact ids store was added later, fill it (once) from the existing (restored) data
+            if (artifactIdsStore.get(StreamsRegistryStorage.ARTIFACT_IDS_FILLED_ID) == null) {
+                try (KeyValueIterator<String, Str.Data> iterator = store.all()) {
+                    iterator.forEachRemaining(kv -> updateArtifactIds(kv.key, kv.value));
+                }
+                artifactIdsStore.put(StreamsRegistryStorage.ARTIFACT_IDS_FILLED_ID, 0);
+            }
+        }
+
+        private void updateArtifactIds(String artifactId, Str.Data data) {
+            int count = 0;
+            if (data != null) {
+                for (Str.ArtifactValue value : data.getArtifactsList()) {
+                    if (!value.equals(Str.ArtifactValue.getDefaultInstance())) {
+                        count++;
+                    }
+                }
+            }
+            if (count > 0) {
+                artifactIdsStore.put(artifactId, count);
+            } else {
+                artifactIdsStore.delete(artifactId);
+            }
         }
 
         @Override
@@ -191,6 +261,7 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
             } else {
                 store.delete(artifactId);
             }
+            updateArtifactIds(artifactId, data);
 
             Str.ActionType action = value.getType();
             switch (action) {
@@ -364,16 +435,26 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
                     if (version > builder.getArtifactsCount()) {
                         log.warn("Version not found: {} [{}]", version, artifactId);
                     } else {
+                        int index = (int) (version - 1);
+                        deleteContent(builder.getArtifacts(index));
                         // set default as deleted
-                        builder.setArtifacts((int) (version - 1), Str.ArtifactValue.getDefaultInstance());
+                        builder.setArtifacts(index, Str.ArtifactValue.getDefaultInstance());
                     }
                 } else {
+                    data.getArtifactsList().forEach(this::deleteContent);
                     return null; // this will remove artifacts from the store
                 }
             }
             return builder.build();
         }
 
+        private void deleteContent(Str.ArtifactValue value) {
+            // deleted versions are default instances
+            if (!value.equals(Str.ArtifactValue.getDefaultInstance())) {
+                contentStore.delete(value.getId());
+            }
+        }
+
         private void createOrUpdateArtifact(Str.Data.Builder builder, String artifactId, long globalId, Str.ArtifactValue artifact, boolean create) {
             builder.setArtifactId(artifactId);
 
@@ -425,9 +506,15 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
                 }
             }
 
+            ContentHandle content = ContentHandle.create(artifact.getContent().toByteArray());
+            String canonicalHash = ContentHashUtil.storedCanonicalHash(factory, type, content);
+            if (canonicalHash != null) {
+                avb.setCanonicalHash(canonicalHash);
+            }
+
             ArtifactTypeUtilProvider provider = factory.getArtifactTypeProvider(type);
             ContentExtractor extractor = provider.getContentExtractor();
-            EditableMetaData emd = extractor.extract(ContentHandle.create(artifact.getContent().toByteArray()));
+            EditableMetaData emd = extractor.extract(content);
             if (extractor.isExtracted(emd)) {
                 if (!isEmpty(emd.getName())) {
                     checkNull(artifactId, version, contents, MetaDataKeys.NAME, emd.getName());
@@ -439,6 +526,10 @@ public class StreamsTopologyProvider implements Supplier<Topology> {
 
             avb.putAllMetadata(contents);
 
+            // the content is only kept in the content store
+            contentStore.put(globalId, content.bytes());
+            avb.clearContent();
+
             builder.addArtifacts(avb);
         }
 
@@ -7,6 +7,7 @@ import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.errors.InvalidStateStoreException;
 import org.apache.kafka.streams.errors.StreamsException;
+import org.apache.kafka.streams.processor.StreamPartitioner;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.StreamsMetadata;
 import org.slf4j.Logger;
@@ -27,7 +28,9 @@ import java.util.stream.Stream;
  * nodes comprising the distributed streams application. It dispatches requests to services on local and remote
  * KafkaStreams processing nodes that contain parts of the data/functionality which is served up. The distribution
  * is performed given the key and storeName which is registered in the kafka streams application and the following
- * streams method: {@link KafkaStreams#metadataForKey(String, Object, Serializer)}.
+ * streams method: {@link KafkaStreams#metadataForKey(String, Object, Serializer)}, or
+ * {@link KafkaStreams#metadataForKey(String, Object, StreamPartitioner)} if the keys of the store
+ * are not the keys the (source topic) records are partitioned by.
  */
 public abstract class DistributedService<K, S> implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(DistributedService.class);
@@ -38,6 +41,7 @@ public abstract class DistributedService<K, S> implements AutoCloseable {
     private final Serde<K> keySerde;
     private final Function<? super HostInfo, ? extends Channel> grpcChannelProvider;
     private final boolean parallel;
+    private final StreamPartitioner<? super K, ?> partitioner;
 
     /**
      * @param streams                The {@link KafkaStreams} application
@@ -61,6 +65,23 @@ public abstract class DistributedService<K, S> implements AutoCloseable {
         Serde<K> keySerde,
         Function<? super HostInfo, ? extends Channel> grpcChannelProvider,
         boolean parallel
+    ) {
+        this(streams, localApplicationServer, storeName, keySerde, grpcChannelProvider, parallel, null);
+    }
+
+    /**
+     * @param partitioner            maps the keys to the partitions of the store, can be null
+     *                               if the keys are partitioned by the default partitioner
+     * @see #DistributedService(KafkaStreams, HostInfo, String, Serde, Function, boolean)
+     */
+    public DistributedService(
+        KafkaStreams streams,
+        HostInfo localApplicationServer,
+        String storeName,
+        Serde<K> keySerde,
+        Function<? super HostInfo, ? extends Channel> grpcChannelProvider,
+        boolean parallel,
+        StreamPartitioner<? super K, ?> partitioner
     ) {
         this.streams = Objects.requireNonNull(streams, "streams");
         this.localApplicationServer = Objects.requireNonNull(localApplicationServer, "localApplicationServer");
@@ -68,6 +89,7 @@ public abstract class DistributedService<K, S> implements AutoCloseable {
         this.keySerde = Objects.requireNonNull(keySerde, "keySerde");
         this.grpcChannelProvider = Objects.requireNonNull(grpcChannelProvider, "grpcChannelProvider");
         this.parallel = parallel;
+        this.partitioner = partitioner;
     }
 
     private final ConcurrentMap<HostInfo, S> hostInfo2service = new ConcurrentHashMap<>();
@@ -103,7 +125,9 @@ public abstract class DistributedService<K, S> implements AutoCloseable {
     }
 
     protected final S serviceForKey(K key) {
-        StreamsMetadata smeta = streams.metadataForKey(storeName, key, keySerde.serializer());
+        StreamsMetadata smeta = partitioner != null
+                                ? streams.metadataForKey(storeName, key, partitioner)
+                                : streams.metadataForKey(storeName, key, keySerde.serializer());
         if (smeta == null) {
             throw new InvalidStateStoreException(
                 "StreamsMetadata is null?! " +
@@ -5,12 +5,16 @@ import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.processor.StreamPartitioner;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.QueryableStoreTypes;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static io.apicurio.registry.streams.distore.StreamToKeyValueIteratorAdapter.toStream;
@@ -50,6 +54,24 @@ public class DistributedReadOnlyKeyValueStore<K, V>
         Function<? super HostInfo, ? extends Channel> grpcChannelProvider,
         boolean parallel,
         FilterPredicate<K, V> filterPredicate
+    ) {
+        this(streams, localApplicationServer, storeName, keySerde, valSerde, grpcChannelProvider, parallel, filterPredicate, null);
+    }
+
+    /**
+     * @param partitioner            maps the keys to the partitions of the store, can be null
+     *                               if the keys are partitioned by the default partitioner
+     * @see #DistributedReadOnlyKeyValueStore(KafkaStreams, HostInfo, String, Serde, Serde, Function, boolean, FilterPredicate)
+     */
+    public DistributedReadOnlyKeyValueStore(
+        KafkaStreams streams,
+        HostInfo localApplicationServer,
+        String storeName,
+        Serde<K> keySerde, Serde<V> valSerde,
+        Function<? super HostInfo, ? extends Channel> grpcChannelProvider,
+        boolean parallel,
+        FilterPredicate<K, V> filterPredicate,
+        StreamPartitioner<? super K, ?> partitioner
     ) {
         super(
             streams,
@@ -58,7 +80,8 @@ public class DistributedReadOnlyKeyValueStore<K, V>
             keySerde,
             valSerde,
             grpcChannelProvider,
-            parallel
+            parallel,
+            partitioner
         );
         this.filterPredicate = filterPredicate;
     }
@@ -86,6 +109,16 @@ public class DistributedReadOnlyKeyValueStore<K, V>
         return allServicesForStoreStream().flatMap(store -> store.filter(filter, over));
     }
 
+    @Override
+    public FilteredKeys<K> filterKeys(String filter, String over, boolean descending, int limit) {
+        // every store returns just its own first keys, which we merge here
+        List<FilteredKeys<K>> results = allServicesForStoreStream()
+            .map(store -> store.filterKeys(filter, over, descending, limit))
+            .collect(Collectors.toList());
+        Comparator<K> comparator = filterPredicate.keyComparator();
+        return FilteredKeys.merge(results, descending ? comparator.reversed() : comparator, limit);
+    }
+
     // ReadOnlyKeyValueStore<K, V> implementation
 
     @Override
@@ -5,6 +5,7 @@ import io.grpc.Channel;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.processor.StreamPartitioner;
 import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.ReadOnlyWindowStore;
 
@@ -42,7 +43,23 @@ public abstract class DistributedReadOnlyStateStore<K, V, ROS> extends Distribut
         Function<? super HostInfo, ? extends Channel> grpcChannelProvider,
         boolean parallel
     ) {
-        super(streams, localApplicationServer, storeName, keySerde, grpcChannelProvider, parallel);
+        this(streams, localApplicationServer, storeName, keySerde, valSerde, grpcChannelProvider, parallel, null);
+    }
+
+    /**
+     * @param partitioner            maps the keys to the partitions of the store, can be null
+     *                               if the keys are partitioned by the default partitioner
+     */
+    public DistributedReadOnlyStateStore(
+        KafkaStreams streams,
+        HostInfo localApplicationServer,
+        String storeName,
+        Serde<K> keySerde, Serde<V> valSerde,
+        Function<? super HostInfo, ? extends Channel> grpcChannelProvider,
+        boolean parallel,
+        StreamPartitioner<? super K, ?> partitioner
+    ) {
+        super(streams, localApplicationServer, storeName, keySerde, grpcChannelProvider, parallel, partitioner);
         this.valSerde = Objects.requireNonNull(valSerde, "valSerde");
     }
 
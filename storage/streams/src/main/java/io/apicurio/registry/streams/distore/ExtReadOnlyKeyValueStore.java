@@ -25,4 +25,15 @@ public interface ExtReadOnlyKeyValueStore<K, V> extends ReadOnlyKeyValueStore<K,
      * @return filtered and limited stream
      */
     Stream<KeyValue<K, V>> filter(String filter, String over);
+
+    /**
+     * Get the first filtered keys, without the values.
+     *
+     * @param filter     the string filter
+     * @param over       the search over enum name
+     * @param descending the keys sort order
+     * @param limit      the max number of keys to return
+     * @return first sorted keys and the count of all matching entries
+     */
+    FilteredKeys<K> filterKeys(String filter, String over, boolean descending, int limit);
 }
@@ -4,6 +4,7 @@ import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 
+import java.util.Comparator;
 import java.util.stream.Stream;
 
 /**
@@ -29,6 +30,14 @@ public class ExtReadOnlyKeyValueStoreImpl<K, V> implements ExtReadOnlyKeyValueSt
             .filter(kv -> filterPredicate.test(filter, over, kv.key, kv.value));
     }
 
+    @Override
+    public FilteredKeys<K> filterKeys(String filter, String over, boolean descending, int limit) {
+        Comparator<K> comparator = filterPredicate.keyComparator();
+        try (Stream<K> keys = filter(filter, over).map(kv -> kv.key)) {
+            return FilteredKeys.top(keys, descending ? comparator.reversed() : comparator, limit);
+        }
+    }
+
     @Override
     public V get(K key) {
         return delegate.get(key);
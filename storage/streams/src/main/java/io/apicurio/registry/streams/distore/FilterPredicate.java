@@ -1,5 +1,7 @@
 package io.apicurio.registry.streams.distore;
 
+import java.util.Comparator;
+
 /**
  * Filter predicate.
  *
@@ -16,4 +18,15 @@ public interface FilterPredicate<K, V> {
      * @return true of false
      */
     boolean test(String filter, String over, K key, V value);
+
+    /**
+     * The (ascending) order of the filtered keys.
+     * Keys are expected to be {@link Comparable} by default.
+     *
+     * @return the key comparator
+     */
+    @SuppressWarnings("unchecked")
+    default Comparator<K> keyComparator() {
+        return (k1, k2) -> ((Comparable<Object>) k1).compareTo(k2);
+    }
 }
@@ -0,0 +1,93 @@
+package io.apicurio.registry.streams.distore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * The first (sorted) keys of a filtered store, and the count of all matching entries.
+ */
+public class FilteredKeys<K> {
+    private final long count;
+    private final List<K> keys;
+
+    public FilteredKeys(long count, List<K> keys) {
+        this.count = count;
+        this.keys = keys;
+    }
+
+    /**
+     * @return the count of all the matching entries, not just the returned keys
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the first sorted matching keys
+     */
+    public List<K> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Collect the first {@code limit} keys of the stream, as ordered by the comparator.
+     * Only {@code limit} keys are kept in memory at any time.
+     */
+    public static <K> FilteredKeys<K> top(Stream<K> keys, Comparator<? super K> comparator, int limit) {
+        // head of the queue is the last of the current top keys
+        PriorityQueue<K> queue = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), comparator.reversed());
+        long[] count = new long[1];
+        keys.forEach(key -> {
+            count[0]++;
+            if (queue.size() < limit) {
+                queue.add(key);
+            } else if (limit > 0 && comparator.compare(key, queue.peek()) < 0) {
+                queue.poll();
+                queue.add(key);
+            }
+        });
+        List<K> result = new ArrayList<>(queue);
+        result.sort(comparator);
+        return new FilteredKeys<>(count[0], result);
+    }
+
+    /**
+     * K-way merge of already sorted (partial) results.
+     */
+    public static <K> FilteredKeys<K> merge(Collection<FilteredKeys<K>> results, Comparator<? super K> comparator, int limit) {
+        long count = 0;
+        PriorityQueue<Head<K>> heads = new PriorityQueue<>(Math.max(1, results.size()), (h1, h2) -> comparator.compare(h1.key, h2.key));
+        for (FilteredKeys<K> result : results) {
+            count += result.getCount();
+            Iterator<K> iterator = result.getKeys().iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator));
+            }
+        }
+        List<K> keys = new ArrayList<>();
+        while (keys.size() < limit && !heads.isEmpty()) {
+            Head<K> head = heads.poll();
+            keys.add(head.key);
+            if (head.iterator.hasNext()) {
+                head.key = head.iterator.next();
+                heads.add(head);
+            }
+        }
+        return new FilteredKeys<>(count, keys);
+    }
+
+    private static class Head<K> {
+        private final Iterator<K> iterator;
+        private K key;
+
+        Head(Iterator<K> iterator) {
+            this.iterator = iterator;
+            this.key = iterator.next();
+        }
+    }
+}
@@ -78,6 +78,28 @@ public class KeyValueStoreGrpcImplLocalDispatcher extends KeyValueStoreGrpc.KeyV
         }
     }
 
+    @Override
+    public void filterKeys(FilterKeysReq request, StreamObserver<FilteredKeysRes> responseObserver) {
+        boolean ok = false;
+        try {
+            String storeName = request.getStoreName();
+            FilteredKeys<?> filteredKeys = keyValueStore(storeName).filterKeys(
+                request.getFilter(), request.getOver(), request.getDescending(), request.getLimit()
+            );
+            FilteredKeysRes.Builder builder = FilteredKeysRes.newBuilder().setCount(filteredKeys.getCount());
+            for (Object key : filteredKeys.getKeys()) {
+                builder.addKeys(ByteString.copyFrom(keyValueSerdes.serializeKey(storeName, key)));
+            }
+            responseObserver.onNext(builder.build());
+            ok = true;
+        } catch (Throwable e) {
+            responseObserver.onError(e);
+        }
+        if (ok) {
+            responseObserver.onCompleted();
+        }
+    }
+
     @Override
     public void get(KeyReq request, StreamObserver<Value> responseObserver) {
         boolean ok = false;
@@ -9,6 +9,8 @@ import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -63,6 +65,28 @@ public class ReadOnlyKeyValueStoreGrpcClient<K, V> implements ExtReadOnlyKeyValu
         return keyValueStream(observer.stream());
     }
 
+    @Override
+    public FilteredKeys<K> filterKeys(String filter, String over, boolean descending, int limit) {
+        StreamObserverSpliterator<FilteredKeysRes> observer = new StreamObserverSpliterator<>();
+        stub.filterKeys(
+            FilterKeysReq
+                .newBuilder()
+                .setFilter(filter)
+                .setOver(over)
+                .setDescending(descending)
+                .setLimit(limit)
+                .setStoreName(storeName)
+                .build(),
+            observer
+        );
+        FilteredKeysRes res = observer.stream().findFirst().orElseThrow(IllegalStateException::new);
+        List<K> keys = res.getKeysList()
+            .stream()
+            .map(key -> keyValueSerde.deserializeKey(key.toByteArray()))
+            .collect(Collectors.toList());
+        return new FilteredKeys<>(res.getCount(), keys);
+    }
+
     // AutoCloseable
 
     @Override
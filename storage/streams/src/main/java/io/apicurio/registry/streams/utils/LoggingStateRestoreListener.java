@@ -5,14 +5,26 @@ import org.apache.kafka.streams.processor.StateRestoreListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Ales Justin
  */
 public class LoggingStateRestoreListener implements StateRestoreListener {
     private static final Logger log = LoggerFactory.getLogger(LoggingStateRestoreListener.class);
 
+    // restore start time per store partition, to measure the restore (startup) time
+    private final Map<String, Long> starts = new ConcurrentHashMap<>();
+
+    private static String key(TopicPartition topicPartition, String storeName) {
+        return storeName + "/" + topicPartition;
+    }
+
     @Override
     public void onRestoreStart(TopicPartition topicPartition, String storeName, long startingOffset, long endingOffset) {
+        starts.put(key(topicPartition, storeName), System.nanoTime());
         log.info("restore start: topicPartition={}, storeName={}, startingOffset={}, endingOffset={}", topicPartition, storeName, startingOffset, endingOffset);
     }
 
@@ -24,6 +36,8 @@ public class LoggingStateRestoreListener implements StateRestoreListener {
 
     @Override
     public void onRestoreEnd(TopicPartition topicPartition, String storeName, long totalRestored) {
-        log.info("restore end: topicPartition={}, storeName={}, totalRestored={}", topicPartition, storeName, totalRestored);
+        Long start = starts.remove(key(topicPartition, storeName));
+        long millis = start != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) : -1;
+        log.info("restore end: topicPartition={}, storeName={}, totalRestored={}, durationMs={}", topicPartition, storeName, totalRestored, millis);
     }
 }
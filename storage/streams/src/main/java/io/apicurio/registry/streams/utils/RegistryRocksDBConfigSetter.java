@@ -0,0 +1,74 @@
+package io.apicurio.registry.streams.utils;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+import java.util.Map;
+
+/**
+ * Tunes RocksDB backed (persistent) state stores.
+ * <p>
+ * All stores of this instance share a single block cache and write buffer manager,
+ * so the memory used by RocksDB is bounded, no matter how many store partitions we host.
+ * Index and filter blocks are kept in the block cache as well.
+ */
+public class RegistryRocksDBConfigSetter implements RocksDBConfigSetter {
+
+    public static final String BLOCK_CACHE_SIZE_CONFIG = "rocksdb.block.cache.size";
+    public static final String BLOCK_SIZE_CONFIG = "rocksdb.block.size";
+    public static final String WRITE_BUFFER_SIZE_CONFIG = "rocksdb.write.buffer.size";
+    public static final String MAX_WRITE_BUFFERS_CONFIG = "rocksdb.max.write.buffers";
+    public static final String BACKGROUND_THREADS_CONFIG = "rocksdb.background.threads";
+
+    private static Cache cache;
+    private static WriteBufferManager writeBufferManager;
+
+    private static synchronized void init(Map<String, Object> configs) {
+        if (cache == null) {
+            long cacheSize = getLong(configs, BLOCK_CACHE_SIZE_CONFIG, 64 * 1024 * 1024L);
+            long writeBufferSize = getLong(configs, WRITE_BUFFER_SIZE_CONFIG, 16 * 1024 * 1024L);
+            int maxWriteBuffers = (int) getLong(configs, MAX_WRITE_BUFFERS_CONFIG, 3);
+            cache = new LRUCache(cacheSize);
+            // memtables are charged against the same cache
+            writeBufferManager = new WriteBufferManager(writeBufferSize * maxWriteBuffers, cache);
+        }
+    }
+
+    private static long getLong(Map<String, Object> configs, String key, long defaultValue) {
+        Object value = configs.get(key);
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        init(configs);
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(cache);
+        tableConfig.setBlockSize(getLong(configs, BLOCK_SIZE_CONFIG, 16 * 1024L));
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setPinL0FilterAndIndexBlocksInCache(true);
+        options.setTableFormatConfig(tableConfig);
+
+        options.setWriteBufferManager(writeBufferManager);
+        options.setWriteBufferSize(getLong(configs, WRITE_BUFFER_SIZE_CONFIG, 16 * 1024 * 1024L));
+        options.setMaxWriteBufferNumber((int) getLong(configs, MAX_WRITE_BUFFERS_CONFIG, 3));
+
+        // registry state is small, read-mostly and keyed by artifactId / globalId
+        options.setCompactionStyle(CompactionStyle.LEVEL);
+        options.setLevelCompactionDynamicLevelBytes(true);
+        options.setCompressionType(CompressionType.LZ4_COMPRESSION);
+        options.setIncreaseParallelism((int) getLong(configs, BACKGROUND_THREADS_CONFIG, Math.max(2, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // cache and write buffer manager are shared between stores, do not close them here
+    }
+}
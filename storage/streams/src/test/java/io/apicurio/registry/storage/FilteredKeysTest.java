@@ -0,0 +1,44 @@
+package io.apicurio.registry.storage;
+
+import io.apicurio.registry.streams.distore.FilteredKeys;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class FilteredKeysTest {
+    @Test
+    public void testTopAndMerge() {
+        List<String> all = IntStream.range(0, 1000).mapToObj(i -> String.format("key-%04d", i)).collect(Collectors.toList());
+        List<String> shuffled = new ArrayList<>(all);
+        Collections.shuffle(shuffled);
+
+        Comparator<String> comparator = String.CASE_INSENSITIVE_ORDER;
+        // split over 3 "nodes", like partitioned stores
+        List<FilteredKeys<String>> results = IntStream.range(0, 3)
+            .mapToObj(n -> FilteredKeys.top(
+                IntStream.range(0, shuffled.size()).filter(i -> i % 3 == n).mapToObj(shuffled::get),
+                comparator, 15
+            ))
+            .collect(Collectors.toList());
+        results.forEach(r -> Assertions.assertEquals(15, r.getKeys().size()));
+
+        FilteredKeys<String> merged = FilteredKeys.merge(results, comparator, 15);
+        Assertions.assertEquals(1000, merged.getCount());
+        Assertions.assertEquals(all.subList(0, 15), merged.getKeys());
+
+        Comparator<String> reversed = comparator.reversed();
+        FilteredKeys<String> top = FilteredKeys.top(shuffled.stream(), reversed, 3);
+        Assertions.assertEquals(Arrays.asList("key-0999", "key-0998", "key-0997"), top.getKeys());
+
+        FilteredKeys<String> empty = FilteredKeys.merge(Collections.singletonList(FilteredKeys.top(shuffled.stream(), comparator, 0)), comparator, 0);
+        Assertions.assertEquals(1000, empty.getCount());
+        Assertions.assertTrue(empty.getKeys().isEmpty());
+    }
+}
@@ -18,12 +18,16 @@ package io.apicurio.registry.utils.converter;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.apicurio.registry.client.RegistryService;
 import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.utils.converter.json.FormatStrategy;
 import io.apicurio.registry.utils.converter.json.PrettyFormatStrategy;
 import io.apicurio.registry.utils.serde.AbstractKafkaStrategyAwareSerDe;
 import io.apicurio.registry.utils.serde.SchemaCache;
+import io.apicurio.registry.utils.serde.strategy.ArtifactIdStrategy;
+import io.apicurio.registry.utils.serde.strategy.GlobalIdStrategy;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.json.JsonConverter;
@@ -36,7 +40,7 @@ import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import javax.ws.rs.core.Response;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Ales Justin
@@ -46,7 +50,10 @@ public class ExtJsonConverter extends AbstractKafkaStrategyAwareSerDe<String, Ex
     private final ObjectMapper mapper;
     private FormatStrategy formatStrategy;
 
-    private SchemaCache<JsonNode> cache;
+    private volatile SchemaCache<JsonNode> cache;
+
+    // connect schema instance (by identity) -> topic -> global id, only used with a cacheable global id strategy
+    private final Cache<Schema, Map<String, Long>> ids = Caffeine.newBuilder().weakKeys().build();
 
     public ExtJsonConverter() {
         this(null);
@@ -72,33 +79,88 @@ public class ExtJsonConverter extends AbstractKafkaStrategyAwareSerDe<String, Ex
         jsonConverter.configure(wrapper, isKey);
     }
 
-    private synchronized SchemaCache<JsonNode> getCache() {
-        if (cache == null) {
-            cache = new SchemaCache<JsonNode>(getClient()) {
-                @Override
-                protected JsonNode toSchema(Response response) {
-                    try (InputStream stream = response.readEntity(InputStream.class)) {
-                        return mapper.readTree(stream);
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
+    private SchemaCache<JsonNode> getCache() {
+        SchemaCache<JsonNode> result = cache;
+        if (result == null) {
+            synchronized (this) {
+                result = cache;
+                if (result == null) {
+                    cache = result = createSchemaCache(response -> {
+                        try (InputStream stream = response.readEntity(InputStream.class)) {
+                            return mapper.readTree(stream);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
                 }
-            };
+            }
         }
-        return cache;
+        return result;
     }
 
     @Override
     public byte[] fromConnectData(String topic, Schema schema, Object value) {
-        String schemaString = jsonConverter.asJsonSchema(schema).toString();
-        String artifactId = getArtifactIdStrategy().artifactId(topic, isKey(), schemaString);
-        long globalId = getGlobalIdStrategy().findId(getClient(), artifactId, ArtifactType.KCONNECT, schemaString);
+        long globalId = findId(topic, schema);
 
         byte[] payload = jsonConverter.fromConnectData(topic, schema, value);
 
         return formatStrategy.fromConnectData(globalId, payload);
     }
 
+    private long findId(String topic, Schema schema) {
+        if (schema == null || !getGlobalIdStrategy().isCacheable()) {
+            return resolveId(topic, schema);
+        }
+        Map<String, Long> topicIds = ids.get(schema, s -> new ConcurrentHashMap<>());
+        Long id = topicIds.get(topic);
+        if (id == null) {
+            // resolved outside of the map's lock, as it may call the registry
+            id = resolveId(topic, schema);
+            Long previous = topicIds.putIfAbsent(topic, id);
+            if (previous != null) {
+                id = previous;
+            }
+        }
+        return id;
+    }
+
+    private long resolveId(String topic, Schema schema) {
+        String schemaString = jsonConverter.asJsonSchema(schema).toString();
+        String artifactId = getArtifactIdStrategy().artifactId(topic, isKey(), schemaString);
+        return findId(artifactId, ArtifactType.KCONNECT, schemaString);
+    }
+
+    private void clearIds() {
+        // null when called from the super constructor
+        if (ids != null) {
+            ids.invalidateAll();
+        }
+    }
+
+    @Override
+    public ExtJsonConverter setArtifactIdStrategy(ArtifactIdStrategy<String> artifactIdStrategy) {
+        clearIds();
+        return super.setArtifactIdStrategy(artifactIdStrategy);
+    }
+
+    @Override
+    public ExtJsonConverter setGlobalIdStrategy(GlobalIdStrategy<String> globalIdStrategy) {
+        clearIds();
+        return super.setGlobalIdStrategy(globalIdStrategy);
+    }
+
+    @Override
+    public ExtJsonConverter setKey(boolean key) {
+        clearIds();
+        return super.setKey(key);
+    }
+
+    @Override
+    public void reset() {
+        clearIds();
+        super.reset();
+    }
+
     @Override
     public SchemaAndValue toConnectData(String topic, byte[] value) {
         FormatStrategy.IdPayload ip = formatStrategy.toConnectData(value);
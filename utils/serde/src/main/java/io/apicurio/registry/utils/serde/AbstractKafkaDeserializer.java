@@ -20,14 +20,16 @@ import io.apicurio.registry.client.RegistryService;
 import org.apache.kafka.common.serialization.Deserializer;
 
 import java.nio.ByteBuffer;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import javax.ws.rs.core.Response;
 
 /**
  * @author Ales Justin
  */
 public abstract class AbstractKafkaDeserializer<T, U, S extends AbstractKafkaDeserializer<T, U, S>> extends AbstractKafkaSerDe<S> implements Deserializer<U> {
-    private SchemaCache<T> cache;
+    private volatile SchemaCache<T> cache;
 
     public AbstractKafkaDeserializer() {
     }
@@ -36,16 +38,18 @@ public abstract class AbstractKafkaDeserializer<T, U, S extends AbstractKafkaDes
         super(client);
     }
 
-    private synchronized SchemaCache<T> getCache() {
-        if (cache == null) {
-            cache = new SchemaCache<T>(getClient()) {
-                @Override
-                protected T toSchema(Response artifactResponse) {
-                    return AbstractKafkaDeserializer.this.toSchema(artifactResponse);
+    private SchemaCache<T> getCache() {
+        SchemaCache<T> result = cache;
+        if (result == null) {
+            // the client is only known after configure, so the cache is created (and safely published) lazily
+            synchronized (this) {
+                result = cache;
+                if (result == null) {
+                    cache = result = createSchemaCache(this::toSchema);
                 }
-            };
+            }
         }
-        return cache;
+        return result;
     }
 
     @Override
@@ -59,6 +63,25 @@ public abstract class AbstractKafkaDeserializer<T, U, S extends AbstractKafkaDes
         super.reset();
     }
 
+    /**
+     * Fetches the schemas of the serialized records with a single registry call,
+     * e.g. for the values of all the records returned by a consumer poll, so they are cached before deserializing.
+     * Null and foreign (not written by a registry serializer) records are skipped.
+     *
+     * @param data the serialized records
+     * @return number of fetched schemas
+     */
+    public int prefetch(Iterable<byte[]> data) {
+        int minSize = 1 + getIdHandler().idSize();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (byte[] bytes : data) {
+            if (bytes != null && bytes.length >= minSize && bytes[0] == MAGIC_BYTE) {
+                ids.add(getIdHandler().readId(getByteBuffer(bytes)));
+            }
+        }
+        return ids.isEmpty() ? 0 : getCache().prefetch(ids);
+    }
+
     protected abstract T toSchema(Response response);
 
     protected abstract U readData(T schema, ByteBuffer buffer, int start, int length);
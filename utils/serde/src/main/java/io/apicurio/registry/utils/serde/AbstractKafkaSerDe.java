@@ -28,9 +28,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.ws.rs.core.Response;
 
 /**
  * Common class for both serializer and deserializer.
@@ -52,6 +55,9 @@ public abstract class AbstractKafkaSerDe<T extends AbstractKafkaSerDe<T>> implem
 
     private RegistryService client;
 
+    private Map<String, ?> configs = Collections.emptyMap();
+    private SchemaStore schemaStore;
+
     public AbstractKafkaSerDe() {
     }
 
@@ -89,6 +95,8 @@ public abstract class AbstractKafkaSerDe<T extends AbstractKafkaSerDe<T>> implem
     }
 
     protected void configure(Map<String, ?> configs) {
+        this.configs = configs;
+        this.schemaStore = SchemaStore.get(configs);
         if (client == null) {
             String baseUrl = (String) configs.get(REGISTRY_URL_CONFIG_PARAM);
             if (baseUrl == null) {
@@ -97,7 +105,7 @@ public abstract class AbstractKafkaSerDe<T extends AbstractKafkaSerDe<T>> implem
             try {
                 Object cached = configs.get(REGISTRY_CACHED_CONFIG_PARAM);
                 if (Utils.isTrue(cached)) {
-                    client = RegistryClient.cached(baseUrl);
+                    client = RegistryClient.cached(baseUrl, configs);
                 } else {
                     client = RegistryClient.create(baseUrl);
                 }
@@ -159,6 +167,27 @@ public abstract class AbstractKafkaSerDe<T extends AbstractKafkaSerDe<T>> implem
         return client;
     }
 
+    /**
+     * @return the (shared) persistent schema store, or null if not configured
+     */
+    protected SchemaStore getSchemaStore() {
+        return schemaStore;
+    }
+
+    /**
+     * Creates a schema cache, configured with this ser/de's configuration.
+     */
+    protected <V> SchemaCache<V> createSchemaCache(Function<Response, V> toSchema) {
+        SchemaCache<V> cache = new SchemaCache<V>(getClient()) {
+            @Override
+            protected V toSchema(Response response) {
+                return toSchema.apply(response);
+            }
+        };
+        cache.configure(configs);
+        return cache;
+    }
+
     public void reset() {
         if (client != null) {
             client.reset();
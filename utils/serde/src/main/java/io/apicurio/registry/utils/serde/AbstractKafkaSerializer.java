@@ -16,21 +16,41 @@
 
 package io.apicurio.registry.utils.serde;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.apicurio.registry.client.RegistryService;
 import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.utils.serde.strategy.ArtifactIdStrategy;
 import io.apicurio.registry.utils.serde.strategy.GlobalIdStrategy;
+import io.apicurio.registry.utils.serde.util.BufferOutputStream;
+import io.apicurio.registry.utils.serde.util.Utils;
 import org.apache.kafka.common.serialization.Serializer;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Ales Justin
  */
 public abstract class AbstractKafkaSerializer<T, U, S extends AbstractKafkaSerializer<T, U, S>> extends AbstractKafkaStrategyAwareSerDe<T, S> implements Serializer<U> {
+    public static final String REGISTRY_REUSE_BUFFERS_CONFIG_PARAM = "apicurio.registry.reuse-buffers";
+
+    // bigger buffers are not kept for reuse
+    private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+
+    // initial size of a new buffer, a hint only: a smoothed average of the record sizes,
+    // so a single large record doesn't size all following buffers; updates racing between threads may be lost
+    private volatile int sizeHint = 256;
+    private boolean reuseBuffers;
+    private final ThreadLocal<BufferOutputStream> buffers = ThreadLocal.withInitial(() -> new BufferOutputStream(sizeHint));
+
+    // schema instance (by identity) -> topic -> global id, only used with a cacheable global id strategy
+    private final Cache<T, Map<String, Long>> ids = Caffeine.newBuilder().weakKeys().build();
+    // consecutive records mostly share the schema and topic
+    private volatile ResolvedId last;
 
     public AbstractKafkaSerializer() {
         this(null);
@@ -62,15 +82,126 @@ public abstract class AbstractKafkaSerializer<T, U, S extends AbstractKafkaSeria
         }
         try {
             T schema = toSchema(data);
-            String artifactId = getArtifactIdStrategy().artifactId(topic, isKey(), schema);
-            long id = getGlobalIdStrategy().findId(getClient(), artifactId, artifactType(), schema);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            out.write(MAGIC_BYTE);
-            getIdHandler().writeId(id, out);
-            serializeData(schema, data, out);
-            return out.toByteArray();
+            long id = findId(topic, schema);
+            BufferOutputStream out = acquireBuffer();
+            try {
+                out.write(MAGIC_BYTE);
+                getIdHandler().writeId(id, out);
+                serializeData(schema, data, out);
+                return out.toByteArray();
+            } finally {
+                releaseBuffer(out);
+            }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        super.configure(configs, isKey);
+
+        Object reuse = configs.get(REGISTRY_REUSE_BUFFERS_CONFIG_PARAM);
+        if (reuse != null) {
+            setReuseBuffers(Utils.isTrue(reuse));
+        }
+    }
+
+    /**
+     * Serialize into a per-thread buffer, which is reused for subsequent records,
+     * so only the exactly sized result is allocated per record.
+     */
+    public S setReuseBuffers(boolean reuseBuffers) {
+        this.reuseBuffers = reuseBuffers;
+        return self();
+    }
+
+    private BufferOutputStream acquireBuffer() {
+        if (reuseBuffers) {
+            BufferOutputStream out = buffers.get();
+            out.reset();
+            return out;
+        }
+        return new BufferOutputStream(sizeHint);
+    }
+
+    private void releaseBuffer(BufferOutputStream out) {
+        int hint = sizeHint;
+        sizeHint = hint + (Math.min(out.size(), MAX_REUSED_BUFFER_SIZE) - hint) / 8;
+        if (reuseBuffers && out.capacity() > MAX_REUSED_BUFFER_SIZE) {
+            buffers.remove();
+        }
+    }
+
+    private long findId(String topic, T schema) {
+        GlobalIdStrategy<T> globalIdStrategy = getGlobalIdStrategy();
+        if (schema == null || !globalIdStrategy.isCacheable()) {
+            return resolveId(topic, schema);
+        }
+        ResolvedId resolved = last;
+        if (resolved != null && resolved.schema == schema && resolved.topic.equals(topic)) {
+            return resolved.id;
+        }
+        Map<String, Long> topicIds = ids.get(schema, s -> new ConcurrentHashMap<>());
+        Long id = topicIds.get(topic);
+        if (id == null) {
+            // resolved outside of the map's lock, as it may call the registry
+            id = resolveId(topic, schema);
+            Long previous = topicIds.putIfAbsent(topic, id);
+            if (previous != null) {
+                id = previous;
+            }
+        }
+        last = new ResolvedId(schema, topic, id);
+        return id;
+    }
+
+    private long resolveId(String topic, T schema) {
+        String artifactId = getArtifactIdStrategy().artifactId(topic, isKey(), schema);
+        return findId(artifactId, artifactType(), schema);
+    }
+
+    private void clearIds() {
+        // null when called from the super constructor
+        if (ids != null) {
+            ids.invalidateAll();
+            last = null;
+        }
+    }
+
+    @Override
+    public S setArtifactIdStrategy(ArtifactIdStrategy<T> artifactIdStrategy) {
+        clearIds();
+        return super.setArtifactIdStrategy(artifactIdStrategy);
+    }
+
+    @Override
+    public S setGlobalIdStrategy(GlobalIdStrategy<T> globalIdStrategy) {
+        clearIds();
+        return super.setGlobalIdStrategy(globalIdStrategy);
+    }
+
+    @Override
+    public S setKey(boolean key) {
+        clearIds();
+        return super.setKey(key);
+    }
+
+    @Override
+    public void reset() {
+        clearIds();
+        super.reset();
+    }
+
+    private static final class ResolvedId {
+        private final Object schema;
+        private final String topic;
+        private final long id;
+
+        ResolvedId(Object schema, String topic, long id) {
+            this.schema = schema;
+            this.topic = topic;
+            this.id = id;
+        }
+    }
 }
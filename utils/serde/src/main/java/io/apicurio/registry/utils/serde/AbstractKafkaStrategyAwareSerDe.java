@@ -17,6 +17,9 @@
 package io.apicurio.registry.utils.serde;
 
 import io.apicurio.registry.client.RegistryService;
+import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.utils.DigestUtil;
+import io.apicurio.registry.utils.IoUtil;
 import io.apicurio.registry.utils.serde.strategy.ArtifactIdStrategy;
 import io.apicurio.registry.utils.serde.strategy.FindBySchemaIdStrategy;
 import io.apicurio.registry.utils.serde.strategy.GlobalIdStrategy;
@@ -82,6 +85,30 @@ public abstract class AbstractKafkaStrategyAwareSerDe<T, S extends AbstractKafka
         return self();
     }
 
+    /**
+     * Finds the global id of the schema with the global id strategy.
+     * Ids found by a cacheable strategy are also persisted in the schema store, if configured,
+     * so they don't have to be looked up again e.g. after a restart.
+     * A persisted id is trusted as is; it's only dropped once fetching it fails,
+     * e.g. when a deserializer using the same store gets a 404 because the artifact was deleted.
+     * <p>
+     * Hashing the schema is not cheap, so callers should cache the found ids per schema instance.
+     */
+    protected long findId(String artifactId, ArtifactType artifactType, T schema) {
+        SchemaStore store = getSchemaStore();
+        if (store == null || schema == null || !globalIdStrategy.isCacheable()) {
+            return globalIdStrategy.findId(getClient(), artifactId, artifactType, schema);
+        }
+        String fingerprint = DigestUtil.sha256Hex(IoUtil.toBytes(globalIdStrategy.toStream(schema)));
+        String key = artifactType + "/" + artifactId + "/" + fingerprint;
+        Long id = store.getId(key);
+        if (id == null) {
+            id = globalIdStrategy.findId(getClient(), artifactId, artifactType, schema);
+            store.putId(key, id);
+        }
+        return id;
+    }
+
     public void configure(Map<String, ?> configs, boolean isKey) {
         configure(configs);
 
@@ -91,6 +118,6 @@ public abstract class AbstractKafkaStrategyAwareSerDe<T, S extends AbstractKafka
         Object gis = configs.get(REGISTRY_GLOBAL_ID_STRATEGY_CONFIG_PARAM);
         instantiate(GlobalIdStrategy.class, gis, this::setGlobalIdStrategy);
 
-        key = isKey;
+        setKey(isKey);
     }
 }
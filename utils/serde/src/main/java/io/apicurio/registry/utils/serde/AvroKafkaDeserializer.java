@@ -16,11 +16,15 @@
 
 package io.apicurio.registry.utils.serde;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.apicurio.registry.client.RegistryService;
 import io.apicurio.registry.utils.serde.avro.AvroDatumProvider;
 import io.apicurio.registry.utils.serde.avro.AvroSchemaUtils;
 import io.apicurio.registry.utils.serde.avro.DefaultAvroDatumProvider;
+import io.apicurio.registry.utils.serde.util.Utils;
 import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 
@@ -36,9 +40,18 @@ import javax.ws.rs.core.Response;
  * @author Ales Justin
  */
 public class AvroKafkaDeserializer<U> extends AbstractKafkaDeserializer<Schema, U, AvroKafkaDeserializer<U>> {
+    public static final String REGISTRY_AVRO_REUSE_RECORDS_CONFIG_PARAM = "apicurio.registry.avro-reuse-records";
+
     private final DecoderFactory decoderFactory = DecoderFactory.get();
     private AvroDatumProvider<U> avroDatumProvider;
 
+    // writer schema (by identity, as held by the schema cache) -> reader, which resolves it against the reader schema;
+    // readers can be shared between threads
+    private final Cache<Schema, DatumReader<U>> readers = Caffeine.newBuilder().weakKeys().build();
+    private final ThreadLocal<BinaryDecoder> decoders = new ThreadLocal<>();
+    private boolean reuseRecords;
+    private final ThreadLocal<U> records = new ThreadLocal<>();
+
     public AvroKafkaDeserializer() {
         this(null);
     }
@@ -54,6 +67,19 @@ public class AvroKafkaDeserializer<U> extends AbstractKafkaDeserializer<Schema,
 
     public AvroKafkaDeserializer<U> setAvroDatumProvider(AvroDatumProvider<U> avroDatumProvider) {
         this.avroDatumProvider = Objects.requireNonNull(avroDatumProvider);
+        // null when called from the constructor
+        if (readers != null) {
+            readers.invalidateAll();
+        }
+        return this;
+    }
+
+    /**
+     * Reads each record into the previous record read by the same thread, where the datum reader supports it.
+     * Only for consumers which are done with a record before deserializing the next one.
+     */
+    public AvroKafkaDeserializer<U> setReuseRecords(boolean reuseRecords) {
+        this.reuseRecords = reuseRecords;
         return this;
     }
 
@@ -67,6 +93,17 @@ public class AvroKafkaDeserializer<U> extends AbstractKafkaDeserializer<Schema,
             ((Consumer<AvroDatumProvider>) avroDatumProvider -> avroDatumProvider.configure(configs))
                 .andThen(this::setAvroDatumProvider);
         instantiate(AvroDatumProvider.class, adp, consumer);
+
+        Object reuse = configs.get(REGISTRY_AVRO_REUSE_RECORDS_CONFIG_PARAM);
+        if (reuse != null) {
+            setReuseRecords(Utils.isTrue(reuse));
+        }
+    }
+
+    @Override
+    public void reset() {
+        readers.invalidateAll();
+        super.reset();
     }
 
     @Override
@@ -77,8 +114,15 @@ public class AvroKafkaDeserializer<U> extends AbstractKafkaDeserializer<Schema,
     @Override
     protected U readData(Schema schema, ByteBuffer buffer, int start, int length) {
         try {
-            DatumReader<U> reader = avroDatumProvider.createDatumReader(schema);
-            return reader.read(null, decoderFactory.binaryDecoder(buffer.array(), start, length, null));
+            DatumReader<U> reader = readers.get(schema, avroDatumProvider::createDatumReader);
+            BinaryDecoder decoder = decoderFactory.binaryDecoder(buffer.array(), start, length, decoders.get());
+            decoders.set(decoder);
+            if (reuseRecords) {
+                U record = reader.read(records.get(), decoder);
+                records.set(record);
+                return record;
+            }
+            return reader.read(null, decoder);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
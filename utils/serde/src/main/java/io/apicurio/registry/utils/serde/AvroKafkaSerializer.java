@@ -39,6 +39,8 @@ import java.util.function.Consumer;
  */
 public class AvroKafkaSerializer<U> extends AbstractKafkaSerializer<Schema, U, AvroKafkaSerializer<U>> {
     private final EncoderFactory encoderFactory = EncoderFactory.get();
+    // encoders are cheap to reconfigure for another stream, but not thread-safe
+    private final ThreadLocal<BinaryEncoder> encoders = new ThreadLocal<>();
     private AvroDatumProvider<U> avroDatumProvider = new DefaultAvroDatumProvider<>();
 
     public AvroKafkaSerializer() {
@@ -91,7 +93,8 @@ public class AvroKafkaSerializer<U> extends AbstractKafkaSerializer<Schema, U, A
 
     @Override
     protected void serializeData(Schema schema, U data, OutputStream out) throws IOException {
-        BinaryEncoder encoder = encoderFactory.directBinaryEncoder(out, null);
+        BinaryEncoder encoder = encoderFactory.directBinaryEncoder(out, encoders.get());
+        encoders.set(encoder);
 
         // I guess this can happen if generics are lost with reflection ...
         if (data instanceof NonRecordContainer) {
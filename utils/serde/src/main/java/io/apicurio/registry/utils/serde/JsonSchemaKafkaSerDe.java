@@ -25,7 +25,6 @@ import io.apicurio.registry.utils.serde.util.Utils;
 import org.apache.kafka.common.serialization.Serializer;
 
 import java.util.Map;
-import javax.ws.rs.core.Response;
 
 /**
  * @author Ales Justin
@@ -36,7 +35,7 @@ public class JsonSchemaKafkaSerDe<S extends JsonSchemaKafkaSerDe<S>> extends Abs
     protected static ObjectMapper mapper = new ObjectMapper();
 
     private Boolean validationEnabled;
-    private SchemaCache<SchemaValidator> schemaCache;
+    private volatile SchemaCache<SchemaValidator> schemaCache;
 
     /**
      * Constructor.
@@ -79,15 +78,18 @@ public class JsonSchemaKafkaSerDe<S extends JsonSchemaKafkaSerDe<S>> extends Abs
     }
 
     protected SchemaCache<SchemaValidator> getSchemaCache() {
-        if (schemaCache == null) {
-            schemaCache = new SchemaCache<SchemaValidator>(getClient()) {
-                @Override
-                protected SchemaValidator toSchema(Response response) {
-                    String schema = response.readEntity(String.class);
-                    return api.loadSchema(new StringSchemaSource(schema));
+        SchemaCache<SchemaValidator> result = schemaCache;
+        if (result == null) {
+            synchronized (this) {
+                result = schemaCache;
+                if (result == null) {
+                    schemaCache = result = createSchemaCache(response -> {
+                        String schema = response.readEntity(String.class);
+                        return api.loadSchema(new StringSchemaSource(schema));
+                    });
                 }
-            };
+            }
         }
-        return schemaCache;
+        return result;
     }
 }
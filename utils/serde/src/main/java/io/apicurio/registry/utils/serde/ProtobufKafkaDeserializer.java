@@ -16,23 +16,34 @@
 
 package io.apicurio.registry.utils.serde;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.ExtensionRegistryLite;
 import io.apicurio.registry.client.RegistryService;
 import io.apicurio.registry.common.proto.Serde;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.ws.rs.core.Response;
 
 /**
+ * The file descriptors are built once per schema (global id): the schema cache holds the schema bytes,
+ * and the descriptors built from them are cached (internally) by the bytes' identity.
+ *
  * @author Ales Justin
  * @author Hiram Chirino
  */
 public class ProtobufKafkaDeserializer extends AbstractKafkaDeserializer<byte[], DynamicMessage, ProtobufKafkaDeserializer> {
+    // schema bytes (by identity) -> parsed file descriptor
+    private final Cache<byte[], ParsedSchema> parsed = Caffeine.newBuilder().weakKeys().build();
+
     public ProtobufKafkaDeserializer() {
     }
 
@@ -48,27 +59,50 @@ public class ProtobufKafkaDeserializer extends AbstractKafkaDeserializer<byte[],
     @Override
     protected DynamicMessage readData(byte[] schema, ByteBuffer buffer, int start, int length) {
         try {
-            Serde.Schema s = Serde.Schema.parseFrom(schema);
-            Descriptors.FileDescriptor fileDescriptor = toFileDescriptor(s);
+            ParsedSchema parsedSchema = parsed.get(schema, ProtobufKafkaDeserializer::parse);
 
-            byte[] bytes = new byte[length];
-            System.arraycopy(buffer.array(), start, bytes, 0, length);
-            ByteArrayInputStream is = new ByteArrayInputStream(bytes);
+            // parse straight from the record's bytes
+            CodedInputStream cis = CodedInputStream.newInstance(buffer.array(), start, length);
 
-            Serde.Ref ref = Serde.Ref.parseDelimitedFrom(is);
+            Serde.Ref ref = cis.readMessage(Serde.Ref.parser(), ExtensionRegistryLite.getEmptyRegistry());
 
-            Descriptors.Descriptor descriptor = fileDescriptor.findMessageTypeByName(ref.getName());
-            return DynamicMessage.parseFrom(descriptor, is);
+            Descriptors.Descriptor descriptor = parsedSchema.findMessageType(ref.getName());
+            if (descriptor == null) {
+                throw new IllegalStateException("No message type " + ref.getName() + " in " + parsedSchema.file.getName());
+            }
+            return DynamicMessage.parseFrom(descriptor, cis);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ParsedSchema parse(byte[] schema) {
+        try {
+            return new ParsedSchema(toFileDescriptor(Serde.Schema.parseFrom(schema)));
         } catch (IOException | Descriptors.DescriptorValidationException e) {
             throw new IllegalStateException(e);
         }
     }
 
-    private Descriptors.FileDescriptor toFileDescriptor(Serde.Schema s) throws Descriptors.DescriptorValidationException {
+    private static Descriptors.FileDescriptor toFileDescriptor(Serde.Schema s) throws Descriptors.DescriptorValidationException {
         List<Descriptors.FileDescriptor> imports = new ArrayList<>();
         for (Serde.Schema i : s.getImportList()) {
             imports.add(toFileDescriptor(i));
         }
         return Descriptors.FileDescriptor.buildFrom(s.getFile(), imports.toArray(new Descriptors.FileDescriptor[0]));
     }
+
+    private static final class ParsedSchema {
+        private final Descriptors.FileDescriptor file;
+        // message name -> message descriptor
+        private final Map<String, Descriptors.Descriptor> types = new ConcurrentHashMap<>();
+
+        ParsedSchema(Descriptors.FileDescriptor file) {
+            this.file = file;
+        }
+
+        Descriptors.Descriptor findMessageType(String name) {
+            return types.computeIfAbsent(name, file::findMessageTypeByName);
+        }
+    }
 }
@@ -16,6 +16,9 @@
 
 package io.apicurio.registry.utils.serde;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.Message;
 import io.apicurio.registry.client.RegistryService;
@@ -23,6 +26,7 @@ import io.apicurio.registry.common.proto.Serde;
 import io.apicurio.registry.types.ArtifactType;
 import io.apicurio.registry.utils.serde.strategy.ArtifactIdStrategy;
 import io.apicurio.registry.utils.serde.strategy.GlobalIdStrategy;
+import io.apicurio.registry.utils.serde.util.BufferOutputStream;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -32,6 +36,10 @@ import java.io.OutputStream;
  * @author Hiram Chirino
  */
 public class ProtobufKafkaSerializer<U extends Message> extends AbstractKafkaSerializer<byte[], U, ProtobufKafkaSerializer<U>> {
+    // the same schema instance for every message of a type, so the resolved id can be cached
+    private final Cache<Descriptors.FileDescriptor, byte[]> schemas = Caffeine.newBuilder().weakKeys().build();
+    private final Cache<Descriptors.Descriptor, Serde.Ref> refs = Caffeine.newBuilder().weakKeys().build();
+
     public ProtobufKafkaSerializer() {
     }
 
@@ -45,9 +53,11 @@ public class ProtobufKafkaSerializer<U extends Message> extends AbstractKafkaSer
 
     @Override
     protected byte[] toSchema(U data) {
-        Serde.Schema schema = toSchemaProto(data.getDescriptorForType().getFile());
-        // Convert to a byte[]
-        return schema.toByteArray();
+        return schemas.get(data.getDescriptorForType().getFile(), file -> {
+            Serde.Schema schema = toSchemaProto(file);
+            // Convert to a byte[]
+            return schema.toByteArray();
+        });
     }
 
     private Serde.Schema toSchemaProto(Descriptors.FileDescriptor file) {
@@ -66,10 +76,25 @@ public class ProtobufKafkaSerializer<U extends Message> extends AbstractKafkaSer
 
     @Override
     protected void serializeData(byte[] schema, U data, OutputStream out) throws IOException {
-        Serde.Ref ref = Serde.Ref.newBuilder()
-                                 .setName(data.getDescriptorForType().getName())
-                                 .build();
-        ref.writeDelimitedTo(out);
-        data.writeTo(out);
+        Serde.Ref ref = refs.get(
+            data.getDescriptorForType(),
+            descriptor -> Serde.Ref.newBuilder().setName(descriptor.getName()).build()
+        );
+        int refSize = ref.getSerializedSize();
+        int size = CodedOutputStream.computeUInt32SizeNoTag(refSize) + refSize + data.getSerializedSize();
+        CodedOutputStream cos;
+        if (out instanceof BufferOutputStream) {
+            // write directly into the buffer
+            BufferOutputStream buffer = (BufferOutputStream) out;
+            int offset = buffer.reserve(size);
+            cos = CodedOutputStream.newInstance(buffer.buffer(), offset, size);
+        } else {
+            cos = CodedOutputStream.newInstance(out, size);
+        }
+        // same as ref.writeDelimitedTo(out) + data.writeTo(out)
+        cos.writeUInt32NoTag(refSize);
+        ref.writeTo(cos);
+        data.writeTo(cos);
+        cos.flush();
     }
 }
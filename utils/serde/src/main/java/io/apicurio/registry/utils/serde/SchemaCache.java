@@ -16,44 +16,381 @@
 
 package io.apicurio.registry.utils.serde;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.apicurio.registry.client.RegistryService;
+import io.apicurio.registry.rest.beans.ArtifactContent;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
 /**
+ * Schemas by global id.
+ * <p>
+ * A missing schema is fetched by the first thread asking for it, while other threads asking for the same id
+ * wait for its (in-flight) future. The remote fetch never holds a map lock, so misses for different ids
+ * and hits never block each other. Failed fetches are not cached.
+ * <p>
+ * Unknown ids are remembered for a while (negative caching), so e.g. a redelivered poison record
+ * doesn't hit the registry every time; only a bounded number of them is remembered. Transient failures (server errors, timeouts, connection issues)
+ * are retried with exponential backoff. After too many consecutive failures the circuit opens
+ * and misses fail fast, without calling the registry, until the open period is over.
+ * Cached schemas are still served while the circuit is open.
+ * <p>
+ * Schemas for a batch of ids can be prefetched with a single registry call, see {@link #prefetch(Collection)}.
+ * <p>
+ * With a {@link SchemaStore} configured, fetched schemas are also persisted,
+ * and restored from there (instead of the registry) e.g. after a restart.
+ *
  * @author Ales Justin
  */
 public abstract class SchemaCache<T> {
+    public static final String REGISTRY_SCHEMA_CACHE_NEGATIVE_TTL_MS_CONFIG_PARAM = "apicurio.registry.schema-cache.negative-ttl-ms";
+    public static final String REGISTRY_SCHEMA_CACHE_RETRIES_CONFIG_PARAM = "apicurio.registry.schema-cache.retries";
+    public static final String REGISTRY_SCHEMA_CACHE_BACKOFF_MS_CONFIG_PARAM = "apicurio.registry.schema-cache.backoff-ms";
+    public static final String REGISTRY_SCHEMA_CACHE_MAX_BACKOFF_MS_CONFIG_PARAM = "apicurio.registry.schema-cache.max-backoff-ms";
+    public static final String REGISTRY_SCHEMA_CACHE_FAILURE_THRESHOLD_CONFIG_PARAM = "apicurio.registry.schema-cache.failure-threshold";
+    public static final String REGISTRY_SCHEMA_CACHE_OPEN_MS_CONFIG_PARAM = "apicurio.registry.schema-cache.open-ms";
+
+    // the registry limits the number of ids per batch request
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_MISSING = 10_000;
+
     private final RegistryService client;
-    private final Map<Long, T> schemas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, CompletableFuture<T>> schemas = new ConcurrentHashMap<>();
+    // ids known to be missing, for the negative ttl
+    private Cache<Long, Boolean> missing;
+
+    private long negativeTtlMs = 1_000;
+    private int retries = 3;
+    private long backoffMs = 100;
+    private long maxBackoffMs = 2_000;
+    private int failureThreshold = 10;
+    private long openMs = 10_000;
+
+    private SchemaStore store;
+
+    private final AtomicInteger failures = new AtomicInteger();
+    // (nano time) until when the circuit is open, 0 if closed
+    private volatile long openUntil;
 
     public SchemaCache(RegistryService client) {
         this.client = Objects.requireNonNull(client);
+        this.missing = newMissing(negativeTtlMs);
+    }
+
+    private static Cache<Long, Boolean> newMissing(long negativeTtlMs) {
+        return Caffeine.newBuilder()
+                       .maximumSize(MAX_MISSING)
+                       .expireAfterWrite(Math.max(negativeTtlMs, 0), TimeUnit.MILLISECONDS)
+                       .build();
     }
 
     protected abstract T toSchema(Response response);
 
+    public void configure(Map<String, ?> configs) {
+        negativeTtlMs = getLong(configs, REGISTRY_SCHEMA_CACHE_NEGATIVE_TTL_MS_CONFIG_PARAM, negativeTtlMs);
+        retries = (int) getLong(configs, REGISTRY_SCHEMA_CACHE_RETRIES_CONFIG_PARAM, retries);
+        backoffMs = getLong(configs, REGISTRY_SCHEMA_CACHE_BACKOFF_MS_CONFIG_PARAM, backoffMs);
+        maxBackoffMs = getLong(configs, REGISTRY_SCHEMA_CACHE_MAX_BACKOFF_MS_CONFIG_PARAM, maxBackoffMs);
+        failureThreshold = (int) getLong(configs, REGISTRY_SCHEMA_CACHE_FAILURE_THRESHOLD_CONFIG_PARAM, failureThreshold);
+        openMs = getLong(configs, REGISTRY_SCHEMA_CACHE_OPEN_MS_CONFIG_PARAM, openMs);
+        missing = newMissing(negativeTtlMs);
+        store = SchemaStore.get(configs);
+    }
+
+    private static long getLong(Map<String, ?> configs, String key, long defaultValue) {
+        Object value = configs.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong(value.toString());
+    }
+
     public T getSchema(long id) {
-        return schemas.computeIfAbsent(id, key -> {
-            Response artifactResponse = client.getArtifactByGlobalId(key);
-            Response.StatusType statusInfo = artifactResponse.getStatusInfo();
-            if (statusInfo.getStatusCode() != 200) {
-                throw new IllegalStateException(
-                    String.format(
-                        "Error [%s] retrieving schema: %s",
-                        statusInfo.getReasonPhrase(),
-                        key
-                    )
-                );
-            }
-            return toSchema(artifactResponse);
-        });
+        while (true) {
+            CompletableFuture<T> cf = schemas.get(id);
+            if (cf == null) {
+                checkMissing(id);
+                CompletableFuture<T> loading = new CompletableFuture<>();
+                cf = schemas.putIfAbsent(id, loading);
+                if (cf == null) {
+                    cf = loading;
+                    try {
+                        loading.complete(load(id));
+                    } catch (RuntimeException e) {
+                        schemas.remove(id, loading);
+                        loading.completeExceptionally(e);
+                    }
+                }
+            }
+            T schema = join(cf);
+            // null means a prefetch didn't get the schema, so try on our own
+            if (schema != null) {
+                return schema;
+            }
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> cf) {
+        try {
+            return cf.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fetches the schemas which are not cached yet with a single registry call,
+     * e.g. for all the records returned by a consumer poll, before they are deserialized.
+     * <p>
+     * Ids which are cached, being fetched or known to be missing are skipped.
+     * Prefetching is best effort, failures are not propagated; the schemas are then fetched on demand,
+     * as are the ids the registry leaves out of the batch response.
+     *
+     * @param ids the global ids
+     * @return number of fetched (or restored) schemas
+     */
+    public int prefetch(Collection<Long> ids) {
+        int fetched = 0;
+        Map<Long, CompletableFuture<T>> loading = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id == null || loading.containsKey(id) || schemas.containsKey(id) || isMissing(id)) {
+                continue;
+            }
+            CompletableFuture<T> cf = new CompletableFuture<>();
+            if (schemas.putIfAbsent(id, cf) == null) {
+                T restored = restore(id);
+                if (restored != null) {
+                    cf.complete(restored);
+                    fetched++;
+                } else {
+                    loading.put(id, cf);
+                }
+            }
+        }
+        if (loading.isEmpty()) {
+            return fetched;
+        }
+        if (isOpen()) {
+            loading.forEach(this::release);
+            return fetched;
+        }
+
+        Map<Long, CompletableFuture<T>> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, CompletableFuture<T>> entry : loading.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == MAX_BATCH_SIZE) {
+                fetched += fetch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            fetched += fetch(batch);
+        }
+        return fetched;
+    }
+
+    private int fetch(Map<Long, CompletableFuture<T>> batch) {
+        int fetched = 0;
+        try {
+            List<ArtifactContent> contents = client.getArtifactsByGlobalIds(new ArrayList<>(batch.keySet()));
+            closeCircuit();
+            for (ArtifactContent content : contents) {
+                CompletableFuture<T> cf = batch.remove(content.getGlobalId());
+                if (cf != null) {
+                    try {
+                        cf.complete(parse(content.getContent()));
+                        fetched++;
+                        if (store != null) {
+                            store.putContent(content.getGlobalId(), content.getContent());
+                        }
+                    } catch (RuntimeException e) {
+                        // leave it to the on demand fetch, which reports the error
+                        release(content.getGlobalId(), cf);
+                    }
+                }
+            }
+            // the rest is left to the on demand fetch, which decides whether it is really missing
+        } catch (WebApplicationException e) {
+            // the registry answered, e.g. an older version without batch support
+            if (isTransient(e.getResponse().getStatus())) {
+                recordFailure();
+            } else {
+                closeCircuit();
+            }
+        } catch (RuntimeException e) {
+            recordFailure();
+        }
+        batch.forEach(this::release);
+        return fetched;
+    }
+
+    private void release(Long id, CompletableFuture<T> cf) {
+        schemas.remove(id, cf);
+        cf.complete(null);
+    }
+
+    private boolean isMissing(long id) {
+        return missing.getIfPresent(id) != null;
+    }
+
+    private void markMissing(long id) {
+        if (negativeTtlMs > 0) {
+            missing.put(id, Boolean.TRUE);
+        }
+    }
+
+    private void checkMissing(long id) {
+        if (isMissing(id)) {
+            throw new IllegalStateException(String.format("Error [Not Found (cached)] retrieving schema: %s", id));
+        }
+    }
+
+    private T parse(byte[] content) {
+        return toSchema(Response.ok(new ByteArrayInputStream(content)).build());
+    }
+
+    private T restore(long id) {
+        byte[] content = store != null ? store.getContent(id) : null;
+        if (content != null) {
+            try {
+                return parse(content);
+            } catch (RuntimeException e) {
+                // fetch it from the registry instead
+            }
+        }
+        return null;
+    }
+
+    private T load(long id) {
+        T restored = restore(id);
+        if (restored != null) {
+            return restored;
+        }
+        for (int attempt = 0; ; attempt++) {
+            if (isOpen()) {
+                throw new IllegalStateException(String.format("Registry unavailable (circuit open), not retrieving schema: %s", id));
+            }
+
+            Response response = null;
+            int status;
+            String reason;
+            RuntimeException error = null;
+            try {
+                response = client.getArtifactByGlobalId(id);
+                status = response.getStatus();
+                reason = response.getStatusInfo().getReasonPhrase();
+            } catch (WebApplicationException e) {
+                response = e.getResponse();
+                status = response.getStatus();
+                reason = e.getMessage();
+                error = e;
+            } catch (RuntimeException e) {
+                // e.g. connection issues
+                status = -1;
+                reason = e.getMessage();
+                error = e;
+            }
+
+            if (!isTransient(status)) {
+                // the registry answered
+                closeCircuit();
+                if (status == 200) {
+                    if (store == null) {
+                        return toSchema(response);
+                    }
+                    byte[] content = response.readEntity(byte[].class);
+                    T schema = parse(content);
+                    store.putContent(id, content);
+                    return schema;
+                }
+                close(response);
+                if (status == 404) {
+                    markMissing(id);
+                    if (store != null) {
+                        // so that ser/des no longer use it, see AbstractKafkaStrategyAwareSerDe#findId
+                        store.removeIds(id);
+                    }
+                }
+                throw new IllegalStateException(String.format("Error [%s] retrieving schema: %s", reason, id), error);
+            }
+
+            close(response);
+            recordFailure();
+            if (attempt >= retries) {
+                throw new IllegalStateException(String.format("Error [%s] retrieving schema: %s", reason, id), error);
+            }
+            backoff(attempt);
+        }
+    }
+
+    // releases the connection of a response whose entity is not read
+    private static void close(Response response) {
+        if (response != null) {
+            try {
+                response.close();
+            } catch (RuntimeException e) {
+                // ignore, the error is reported anyway
+            }
+        }
+    }
+
+    private static boolean isTransient(int status) {
+        return status < 0 || status >= 500 || status == 408 || status == 429;
+    }
+
+    private boolean isOpen() {
+        long until = openUntil;
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+    private void recordFailure() {
+        // once over the threshold, each failure (e.g. the first one after the open period) re-opens the circuit
+        if (failures.incrementAndGet() >= failureThreshold) {
+            openUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openMs);
+        }
+    }
+
+    private void closeCircuit() {
+        if (failures.get() != 0) {
+            failures.set(0);
+            openUntil = 0;
+        }
+    }
+
+    private void backoff(int attempt) {
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(attempt, 30));
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
     }
 
     public void clear() {
         schemas.clear();
+        missing.invalidateAll();
     }
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.utils.serde;
+
+import io.apicurio.registry.utils.DigestUtil;
+import io.apicurio.registry.utils.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * Optional on-disk store of schema content by global id, and of global ids by (artifact, schema fingerprint),
+ * so schemas survive restarts and e.g. a rolling restart of many connect tasks
+ * doesn't hit the registry with the whole schema set at once.
+ * <p>
+ * The store is a single append-only file per registry, fully loaded into memory when opened,
+ * and shared by all the ser/des of the JVM using the same directory.
+ * Every entry is checksummed, a torn entry at the end (e.g. after a crash) is dropped.
+ * Only one JVM writes to a file (guarded by a file lock), others just read it.
+ * <p>
+ * Global ids are never reused by a (persistent) registry, so entries never expire;
+ * an id which no longer exists (e.g. its artifact was deleted) can be removed though.
+ * The store must not be used with a registry whose storage gets wiped, e.g. an in-memory one.
+ */
+public final class SchemaStore {
+    private static final Logger log = LoggerFactory.getLogger(SchemaStore.class);
+
+    public static final String REGISTRY_SCHEMA_STORE_DIR_CONFIG_PARAM = "apicurio.registry.schema-store.dir";
+
+    private static final int MAGIC = 0x41525353; // ARSS
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte CONTENT = 1;
+    private static final byte ID = 2;
+    private static final byte REMOVED_ID = 3;
+
+    // entry: type (1) + payload length (4) + payload + crc (4)
+    private static final int ENTRY_OVERHEAD = 9;
+
+    private static final ConcurrentMap<Path, SchemaStore> stores = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final Map<Long, byte[]> contents = new ConcurrentHashMap<>();
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    private FileChannel channel; // null if read-only
+    private FileLock lock;
+
+    private SchemaStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the shared store for the configured directory and registry, or null if not configured
+     */
+    public static SchemaStore get(Map<String, ?> configs) {
+        Object dir = configs.get(REGISTRY_SCHEMA_STORE_DIR_CONFIG_PARAM);
+        if (dir == null) {
+            return null;
+        }
+        // ids are only unique per registry
+        Object url = configs.get(AbstractKafkaSerDe.REGISTRY_URL_CONFIG_PARAM);
+        String name = url != null ? DigestUtil.sha256Hex(IoUtil.toBytes(url.toString())).substring(0, 16) : "default";
+        return open(Paths.get(dir.toString(), "schemas-" + name + ".dat"));
+    }
+
+    /**
+     * @return the shared store for the file
+     */
+    public static SchemaStore open(Path file) {
+        return stores.computeIfAbsent(file.toAbsolutePath().normalize(), f -> {
+            SchemaStore store = new SchemaStore(f);
+            store.load();
+            return store;
+        });
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public byte[] getContent(long globalId) {
+        return contents.get(globalId);
+    }
+
+    public void putContent(long globalId, byte[] content) {
+        if (contents.putIfAbsent(globalId, content) == null) {
+            ByteBuffer payload = ByteBuffer.allocate(8 + content.length);
+            payload.putLong(globalId).put(content);
+            append(CONTENT, payload.array());
+        }
+    }
+
+    public Long getId(String key) {
+        return ids.get(key);
+    }
+
+    public void putId(String key, long globalId) {
+        if (ids.putIfAbsent(key, globalId) == null) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer payload = ByteBuffer.allocate(8 + bytes.length);
+            payload.putLong(globalId).put(bytes);
+            append(ID, payload.array());
+        }
+    }
+
+    /**
+     * Removes the id, if still mapped to the given global id.
+     */
+    public void removeId(String key, long globalId) {
+        if (ids.remove(key, globalId)) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer payload = ByteBuffer.allocate(8 + bytes.length);
+            payload.putLong(globalId).put(bytes);
+            append(REMOVED_ID, payload.array());
+        }
+    }
+
+    /**
+     * Removes all the ids mapped to the given global id, e.g. once the registry no longer knows it.
+     */
+    public void removeIds(long globalId) {
+        for (Map.Entry<String, Long> entry : ids.entrySet()) {
+            if (entry.getValue() == globalId) {
+                removeId(entry.getKey(), globalId);
+            }
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(file.getParent());
+            FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                lock = fc.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                log.info("Schema store {} is used by another process, opening it read-only", file);
+            }
+
+            long valid = read(fc);
+            if (lock != null) {
+                if (valid < fc.size()) {
+                    log.warn("Dropping {} bytes of a torn entry at the end of schema store {}", fc.size() - valid, file);
+                    fc.truncate(valid);
+                }
+                if (valid == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(MAGIC).putInt(FORMAT_VERSION);
+                    ((Buffer) header).flip();
+                    writeFully(fc, header);
+                }
+                fc.position(fc.size());
+                channel = fc;
+            } else {
+                fc.close();
+            }
+            log.info("Loaded {} schemas and {} ids from schema store {}", contents.size(), ids.size(), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the size of the valid part of the file
+     */
+    private long read(FileChannel fc) throws IOException {
+        if (fc.size() < HEADER_SIZE) {
+            return 0;
+        }
+        fc.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(fc)));
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            log.warn("Unknown schema store format, starting over: {}", file);
+            return 0;
+        }
+        long valid = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        try {
+            while (true) {
+                byte type = in.readByte();
+                int length = in.readInt();
+                if (length < 8 || length > fc.size() - valid) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(type);
+                crc.update(payload);
+                if (in.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                long globalId = buffer.getLong();
+                byte[] value = new byte[buffer.remaining()];
+                buffer.get(value);
+                if (type == CONTENT) {
+                    contents.put(globalId, value);
+                } else if (type == ID) {
+                    ids.put(new String(value, StandardCharsets.UTF_8), globalId);
+                } else if (type == REMOVED_ID) {
+                    ids.remove(new String(value, StandardCharsets.UTF_8), globalId);
+                }
+                valid += ENTRY_OVERHEAD + length;
+            }
+        } catch (EOFException e) {
+            // torn entry
+        }
+        return valid;
+    }
+
+    private synchronized void append(byte type, byte[] payload) {
+        if (channel == null) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_OVERHEAD + payload.length);
+        entry.put(type).putInt(payload.length).put(payload).putInt((int) crc.getValue());
+        // (as Buffer, so it also runs on Java 8 when compiled with a newer JDK)
+        ((Buffer) entry).flip();
+        try {
+            writeFully(channel, entry);
+        } catch (IOException e) {
+            // the store is just a cache, keep going without it
+            log.warn("Cannot write to schema store {}, no longer persisting schemas", file, e);
+            close();
+        }
+    }
+
+    private static void writeFully(FileChannel fc, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fc.write(buffer);
+        }
+    }
+
+    private synchronized void close() {
+        if (channel != null) {
+            IoUtil.closeIgnore(lock);
+            IoUtil.closeIgnore(channel);
+            channel = null;
+        }
+    }
+}
@@ -16,12 +16,14 @@
 
 package io.apicurio.registry.utils.serde.strategy;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.apicurio.registry.client.RegistryService;
 import io.apicurio.registry.rest.beans.ArtifactMetaData;
 import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.utils.DigestUtil;
 import io.apicurio.registry.utils.IoUtil;
 
-import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -34,23 +36,34 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class CachedSchemaIdStrategy<T> extends AbstractCrudIdStrategy<T> {
 
-    /* We use string for the key ... */
-    private Map<String, Long> cache = new ConcurrentHashMap<>();
+    // schema fingerprint -> (artifact id -> global id)
+    private final Map<String, Map<String, Long>> cache = new ConcurrentHashMap<>();
+    // schema instance (by identity) -> global ids of its fingerprint,
+    // so a schema is only serialized and hashed once, and not for every record
+    private final Cache<T, Map<String, Long>> schemas = Caffeine.newBuilder().weakKeys().build();
+
+    private Map<String, Long> ids(T schema) {
+        return schemas.get(schema, s -> {
+            String fingerprint = DigestUtil.sha256Hex(IoUtil.toBytes(toStream(s)));
+            return cache.computeIfAbsent(fingerprint, f -> new ConcurrentHashMap<>());
+        });
+    }
 
     @Override
     protected long initialLookup(RegistryService service, String artifactId, ArtifactType artifactType, T schema) {
-        InputStream stream = toStream(schema);
-        String content = IoUtil.toString(stream);
-        return cache.computeIfAbsent(
-            content,
+        return ids(schema).computeIfAbsent(
+            artifactId,
             k -> service.getArtifactMetaDataByContent(artifactId, toStream(schema)).getGlobalId()
         );
     }
 
     @Override
     protected void afterCreateArtifact(T schema, ArtifactMetaData amd) {
-        InputStream stream = toStream(schema);
-        String content = IoUtil.toString(stream);
-        cache.put(content, amd.getGlobalId());
+        ids(schema).put(amd.getId(), amd.getGlobalId());
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
     }
 }
@@ -13,7 +13,10 @@ public class ConfluentIdHandler implements IdHandler {
     static final int idSize = 4; // Confluent uses 4 / int
 
     public void writeId(long id, OutputStream out) throws IOException {
-        out.write(ByteBuffer.allocate(idSize).putInt((int) id).array());
+        int intId = (int) id;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(intId >>> shift);
+        }
     }
 
     @Override
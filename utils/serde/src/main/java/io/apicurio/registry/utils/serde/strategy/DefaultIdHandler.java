@@ -11,7 +11,9 @@ public class DefaultIdHandler implements IdHandler {
     static final int idSize = 8; // we use 8 / long
 
     public void writeId(long id, OutputStream out) throws IOException {
-        out.write(ByteBuffer.allocate(idSize).putLong(id).array());
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (id >>> shift));
+        }
     }
 
     public void writeId(long id, ByteBuffer buffer) {
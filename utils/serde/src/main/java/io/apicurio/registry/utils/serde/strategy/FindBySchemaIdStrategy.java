@@ -29,4 +29,9 @@ public class FindBySchemaIdStrategy<T> implements GlobalIdStrategy<T> {
         ArtifactMetaData amd = service.getArtifactMetaDataByContent(artifactId, toStream(schema));
         return amd.getGlobalId();
     }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
 }
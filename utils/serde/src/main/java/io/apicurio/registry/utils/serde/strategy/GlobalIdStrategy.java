@@ -43,6 +43,17 @@ public interface GlobalIdStrategy<T> {
      */
     long findId(RegistryService service, String artifactId, ArtifactType artifactType, T schema);
 
+    /**
+     * Whether the id found for a schema always stays the same,
+     * so the serializer can cache it per schema instance and skip the lookup for subsequent records.
+     * Strategies which e.g. find the latest artifact version must not be cached.
+     *
+     * @return true if the found ids can be cached, false by default
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
     /**
      * Create InputStream from schema.
      * By default we just take string bytes.
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.utils.serde.util;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Unsynchronized byte array output stream, which can be reset and reused.
+ * The buffer is exposed, so values of a known size can be written into it directly.
+ */
+public class BufferOutputStream extends OutputStream {
+
+    private byte[] buf;
+    private int count;
+
+    public BufferOutputStream(int size) {
+        buf = new byte[Math.max(size, 32)];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Reserves the bytes at the end of the stream, to be written directly into {@link #buffer()}.
+     *
+     * @return offset of the reserved bytes in the buffer
+     */
+    public int reserve(int len) {
+        ensureCapacity(count + len);
+        int offset = count;
+        count += len;
+        return offset;
+    }
+
+    /**
+     * @return the current buffer, only valid until the next write
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return buf.length;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * @return exactly sized copy of the written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("Buffer too large");
+        }
+        if (minCapacity > buf.length) {
+            int newCapacity = buf.length << 1;
+            if (newCapacity < minCapacity) {
+                newCapacity = minCapacity;
+            }
+            if (newCapacity < 0) {
+                newCapacity = Integer.MAX_VALUE - 8;
+            }
+            buf = Arrays.copyOf(buf, newCapacity);
+        }
+    }
+}
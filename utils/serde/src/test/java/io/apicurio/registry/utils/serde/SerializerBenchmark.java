@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 Red Hat
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.registry.utils.serde;
+
+import com.google.protobuf.Timestamp;
+import io.apicurio.registry.client.RegistryClient;
+import io.apicurio.registry.client.RegistryService;
+import io.apicurio.registry.rest.beans.ArtifactMetaData;
+import io.apicurio.registry.types.ArtifactType;
+import io.apicurio.registry.utils.serde.strategy.FindBySchemaIdStrategy;
+import io.apicurio.registry.utils.serde.strategy.GlobalIdStrategy;
+import io.apicurio.registry.utils.serde.strategy.TopicIdStrategy;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializer throughput (records/s), with and without the per schema instance id cache and buffer reuse.
+ * The registry is a local stub behind the cached client, so only the serializer's own overhead is measured.
+ * <p>
+ * Run with {@code mvn -pl utils/serde test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.apicurio.registry.utils.serde.SerializerBenchmark}, or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    @Param({"true", "false"})
+    boolean cacheIds;
+
+    @Param({"true", "false"})
+    boolean reuseBuffers;
+
+    private AvroKafkaSerializer<GenericRecord> avroSerializer;
+    private GenericRecord avroRecord;
+
+    private ProtobufKafkaSerializer<Timestamp> protobufSerializer;
+    private Timestamp protobufMessage;
+
+    @Setup
+    public void setup() {
+        RegistryService client = RegistryClient.cached(stubService());
+
+        Schema schema = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"myrecord\",\"fields\":[" +
+            "{\"name\":\"bar\",\"type\":\"string\"}," +
+            "{\"name\":\"baz\",\"type\":\"long\"}]}"
+        );
+        avroSerializer = new AvroKafkaSerializer<GenericRecord>(client, new TopicIdStrategy<>(), idStrategy())
+            .setReuseBuffers(reuseBuffers);
+        avroRecord = new GenericData.Record(schema);
+        avroRecord.put("bar", "somebar");
+        avroRecord.put("baz", 42L);
+
+        protobufSerializer = new ProtobufKafkaSerializer<Timestamp>(client, new TopicIdStrategy<>(), idStrategy())
+            .setReuseBuffers(reuseBuffers);
+        protobufMessage = Timestamp.newBuilder().setSeconds(1_590_000_000L).setNanos(42).build();
+    }
+
+    @Benchmark
+    public byte[] avro() {
+        return avroSerializer.serialize(TOPIC, avroRecord);
+    }
+
+    @Benchmark
+    public byte[] protobuf() {
+        return protobufSerializer.serialize(TOPIC, protobufMessage);
+    }
+
+    // the default strategy, optionally hiding that its ids are cacheable
+    private <T> GlobalIdStrategy<T> idStrategy() {
+        GlobalIdStrategy<T> strategy = new FindBySchemaIdStrategy<>();
+        if (cacheIds) {
+            return strategy;
+        }
+        return new GlobalIdStrategy<T>() {
+            @Override
+            public long findId(RegistryService service, String artifactId, ArtifactType artifactType, T schema) {
+                return strategy.findId(service, artifactId, artifactType, schema);
+            }
+
+            @Override
+            public InputStream toStream(T schema) {
+                return strategy.toStream(schema);
+            }
+        };
+    }
+
+    // finds every schema, as global id 1
+    private static RegistryService stubService() {
+        return (RegistryService) Proxy.newProxyInstance(
+            RegistryService.class.getClassLoader(),
+            new Class<?>[]{RegistryService.class},
+            (proxy, method, args) -> {
+                if ("getArtifactMetaDataByContent".equals(method.getName())) {
+                    ArtifactMetaData amd = new ArtifactMetaData();
+                    amd.setId((String) args[0]);
+                    amd.setGlobalId(1L);
+                    return amd;
+                }
+                if ("close".equals(method.getName()) || "reset".equals(method.getName())) {
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+}